@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("application")
     id("org.openjfx.javafxplugin") version "0.1.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -44,6 +45,21 @@ tasks.register<JavaExec>("runSimulationAnalyser") {
     classpath = sourceSets["main"].runtimeClasspath
 }
 
+tasks.register<JavaExec>("runScaleTest") {
+    group = "application"
+    description = "Genera un progetto sintetico e verifica gli analizzatori (-Pfiles=1k|10k|100k)"
+    mainClass.set("generator.ScaleTest")
+    classpath = sourceSets["main"].runtimeClasspath
+    args = listOf(project.findProperty("files")?.toString() ?: "1k")
+    systemProperty("generator.analysisLevel", project.findProperty("analysisLevel")?.toString() ?: "IMPORTS_ONLY")
+}
+
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+}
+
 dependencies {
     implementation("com.github.javaparser:javaparser-core:3.25.4")
     implementation("com.github.javaparser:javaparser-symbol-solver-core:3.25.4")
@@ -0,0 +1,73 @@
+package benchmark;
+
+import asynchronous.analyser.DependencyVisitor;
+import asynchronous.report.*;
+import asynchronous.util.DependencyGraph;
+import common.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project-level aggregation of class reports computed once in the setup: grouping into
+ * package and project reports with their totals, and building the dependency graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AggregationBenchmark {
+
+    private final AnalysisMetrics metrics = new AnalysisMetrics();
+    private final List<String> packageNames = new ArrayList<>();
+    private final List<ClassDepsReport> classReports = new ArrayList<>();
+    private String projectName;
+    private ProjectDepsReport projectReport;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState corpus) throws IOException {
+        this.projectName = String.valueOf(corpus.getCorpus());
+        ParserConfigurator parserConfigurator = new ParserConfigurator(corpus.getAnalysisLevel());
+        ParserProvider parserProvider = parserConfigurator.getParserProvider(List.of(corpus.getRoot().toFile()));
+        SourceLoader sourceLoader = new SourceLoader();
+        SourceHeaderScanner headerScanner = new SourceHeaderScanner();
+        for (Path javaFile : corpus.getJavaFiles()) {
+            SourceHeaderScanner.SourceHeader header = headerScanner.scan(javaFile);
+            String className = header.getQualifiedTypeName();
+            sourceLoader.load(javaFile).parse(parserProvider.get()).getResult().ifPresent(unit -> {
+                ClassDepsReport classReport = new ClassDepsReport(className, javaFile);
+                unit.accept(new DependencyVisitor(classReport, className,
+                        parserConfigurator, parserProvider.getScope(), this.metrics), null);
+                this.packageNames.add(header.getPackageName());
+                this.classReports.add(classReport);
+            });
+        }
+        this.projectReport = this.aggregate();
+    }
+
+    @Benchmark
+    public int projectReport() {
+        ProjectDepsReport projectReport = this.aggregate();
+        return projectReport.getTotalDependencyCount() + projectReport.getClassCount();
+    }
+
+    @Benchmark
+    public DependencyGraph dependencyGraph() {
+        return DependencyGraph.of(this.projectReport);
+    }
+
+    private ProjectDepsReport aggregate() {
+        ProjectDepsReport projectReport = new ProjectDepsReport(this.projectName);
+        Map<String, PackageDepsReport> packageReports = new HashMap<>();
+        for (int i = 0; i < this.classReports.size(); i++) {
+            packageReports.computeIfAbsent(this.packageNames.get(i), name -> {
+                PackageDepsReport packageReport = new PackageDepsReport(name);
+                projectReport.addPackageReport(packageReport);
+                return packageReport;
+            }).addClassReport(this.classReports.get(i));
+        }
+        return projectReport;
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import generator.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Source trees the benchmarks run on, written by {@link ProjectGenerator} with a fixed seed.
+ * The corpora are the same on every run and every commit, and their sizes differ by about an
+ * order of magnitude each: 50, 500 and 5000 classes.
+ */
+public enum BenchmarkCorpus {
+    SMALL(2, 25),
+    MEDIUM(10, 50),
+    LARGE(40, 125);
+
+    private static final long SEED = 42;
+
+    private final int packageCount;
+    private final int classesPerPackage;
+
+    BenchmarkCorpus(int packageCount, int classesPerPackage) {
+        this.packageCount = packageCount;
+        this.classesPerPackage = classesPerPackage;
+    }
+
+    // Source root of a freshly generated corpus in a temporary directory, removed by delete
+    public Path prepare() {
+        try {
+            Path outputDir = Files.createTempDirectory("benchmark-corpus");
+            new ProjectGenerator(new GeneratorOptions()
+                    .setPackageCount(this.packageCount)
+                    .setClassesPerPackage(this.classesPerPackage)
+                    .setSeed(SEED))
+                    .generate(outputDir);
+            return outputDir.resolve(ProjectGenerator.SOURCE_FOLDER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<Path> javaFiles(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(path -> path.toString().endsWith(".java"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Remove a corpus returned by prepare, with the ground truth written next to its sources
+    public static void delete(Path root) {
+        try (Stream<Path> paths = Files.walk(root.getParent())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
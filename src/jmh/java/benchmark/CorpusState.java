@@ -0,0 +1,53 @@
+package benchmark;
+
+import common.AnalysisLevel;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Corpus and analysis level shared by the benchmarks, which take it as a parameter of their
+ * setup or benchmark methods. The corpus is generated once per trial and removed after it.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public BenchmarkCorpus corpus;
+
+    @Param({"IMPORTS_ONLY", "FULL_RESOLUTION"})
+    public AnalysisLevel analysisLevel;
+
+    private Path root;
+    private List<Path> javaFiles;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        this.root = this.corpus.prepare();
+        this.javaFiles = BenchmarkCorpus.javaFiles(this.root);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        BenchmarkCorpus.delete(this.root);
+    }
+
+    public BenchmarkCorpus getCorpus() {
+        return this.corpus;
+    }
+
+    public AnalysisLevel getAnalysisLevel() {
+        return this.analysisLevel;
+    }
+
+    // Source root of the corpus
+    public Path getRoot() {
+        return this.root;
+    }
+
+    // Java files of the corpus, in a stable order
+    public List<Path> getJavaFiles() {
+        return this.javaFiles;
+    }
+}
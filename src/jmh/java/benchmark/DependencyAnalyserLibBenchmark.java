@@ -0,0 +1,59 @@
+package benchmark;
+
+import asynchronous.analyser.*;
+import asynchronous.report.*;
+import io.vertx.core.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end analysis through {@link DependencyAnalyserLib}, result cache disabled.
+ * Type solvers and resolutions are dropped before every iteration, so each one starts cold
+ * and then stays warm between invocations, as in a long running analyser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DependencyAnalyserLibBenchmark {
+
+    private Vertx vertx;
+    private DependencyAnalyserLib dependencyAnalyser;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState corpus) {
+        this.vertx = Vertx.vertx();
+        this.dependencyAnalyser = new DependencyAnalyserLib(this.vertx,
+                new AnalyserOptions().setAnalysisLevel(corpus.getAnalysisLevel()));
+    }
+
+    @Setup(Level.Iteration)
+    public void invalidateTypeSolvers(CorpusState corpus) {
+        this.dependencyAnalyser.invalidateTypeSolvers(corpus.getRoot());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.dependencyAnalyser.close().toCompletionStage().toCompletableFuture().get();
+        this.vertx.close().toCompletionStage().toCompletableFuture().get();
+    }
+
+    @Benchmark
+    public void classDependencies(CorpusState corpus, Blackhole blackhole) throws Exception {
+        List<Future<ClassDepsReport>> reports = new ArrayList<>();
+        for (Path javaFile : corpus.getJavaFiles()) {
+            reports.add(this.dependencyAnalyser.getClassDependencies(javaFile, corpus.getRoot()));
+        }
+        blackhole.consume(CompositeFuture.all(new ArrayList<>(reports))
+                .toCompletionStage().toCompletableFuture().get());
+    }
+
+    @Benchmark
+    public ProjectDepsReport projectDependencies(CorpusState corpus) throws Exception {
+        return this.dependencyAnalyser.getProjectDependencies(corpus.getRoot())
+                .toCompletionStage().toCompletableFuture().get();
+    }
+}
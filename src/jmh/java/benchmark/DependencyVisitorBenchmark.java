@@ -0,0 +1,58 @@
+package benchmark;
+
+import asynchronous.analyser.DependencyVisitor;
+import asynchronous.report.ClassDepsReport;
+import com.github.javaparser.ast.CompilationUnit;
+import common.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AST traversal of {@link DependencyVisitor} alone, on compilation units parsed once in the setup.
+ * With FULL_RESOLUTION this includes symbol resolution; the resolution cache is cleared before
+ * every iteration, so it is measured filling up rather than only serving hits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DependencyVisitorBenchmark {
+
+    private final AnalysisMetrics metrics = new AnalysisMetrics();
+    private ParserConfigurator parserConfigurator;
+    private ParserProvider parserProvider;
+    private final List<CompilationUnit> units = new ArrayList<>();
+    private final List<Path> unitFiles = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState corpus) throws IOException {
+        this.parserConfigurator = new ParserConfigurator(corpus.getAnalysisLevel());
+        this.parserProvider = this.parserConfigurator.getParserProvider(List.of(corpus.getRoot().toFile()));
+        SourceLoader sourceLoader = new SourceLoader();
+        for (Path javaFile : corpus.getJavaFiles()) {
+            sourceLoader.load(javaFile).parse(this.parserProvider.get()).getResult().ifPresent(unit -> {
+                this.units.add(unit);
+                this.unitFiles.add(javaFile);
+            });
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearResolutionCache() {
+        this.parserConfigurator.getResolutionCache().clear();
+    }
+
+    @Benchmark
+    public void visit(Blackhole blackhole) {
+        for (int i = 0; i < this.units.size(); i++) {
+            ClassDepsReport report = new ClassDepsReport("Benchmark", this.unitFiles.get(i));
+            this.units.get(i).accept(new DependencyVisitor(report, "Benchmark",
+                    this.parserConfigurator, this.parserProvider.getScope(), this.metrics), null);
+            blackhole.consume(report);
+        }
+    }
+}
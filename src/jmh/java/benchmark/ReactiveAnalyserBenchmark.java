@@ -0,0 +1,48 @@
+package benchmark;
+
+import io.reactivex.rxjava3.core.Flowable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import reactive.model.ReactiveDependencyAnalyser;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReactiveDependencyAnalyser#parseClassDependencies(Path)} over a corpus, one file after another
+ * and through the parallel rails of {@link ReactiveDependencyAnalyser#analyseFiles}, result cache disabled.
+ * Type solvers and resolutions are dropped before every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReactiveAnalyserBenchmark {
+
+    private ReactiveDependencyAnalyser analyser;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState corpus) {
+        this.analyser = new ReactiveDependencyAnalyser(null);
+        this.analyser.setAnalysisLevel(corpus.getAnalysisLevel());
+    }
+
+    @Setup(Level.Iteration)
+    public void invalidateTypeSolvers(CorpusState corpus) {
+        this.analyser.invalidateTypeSolvers();
+        this.analyser.prepare(corpus.getRoot().toString());
+    }
+
+    @Benchmark
+    public void parseClassDependencies(CorpusState corpus, Blackhole blackhole) {
+        for (Path javaFile : corpus.getJavaFiles()) {
+            blackhole.consume(this.analyser.parseClassDependencies(javaFile));
+        }
+    }
+
+    @Benchmark
+    public long analyseFiles(CorpusState corpus) {
+        return this.analyser.analyseFiles(Flowable.fromIterable(corpus.getJavaFiles()))
+                .count()
+                .blockingGet();
+    }
+}
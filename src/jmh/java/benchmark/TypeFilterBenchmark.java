@@ -0,0 +1,48 @@
+package benchmark;
+
+import common.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ParserConfigurator#shouldIncludeType(String)} on a mix of JDK, primitive, array and project types,
+ * with the default rules and with a larger set of overrides using wildcards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TypeFilterBenchmark {
+    private static final String[] TYPE_NAMES = {
+            "java.lang.String", "java.util.List", "java.util.Map", "javax.swing.JPanel",
+            "int", "boolean", "String[]", "java.nio2x.Buffer",
+            "asynchronous.report.ClassDepsReport", "asynchronous.util.TypeDependency",
+            "common.ParserConfigurator", "reactive.model.ClassDependency",
+            "io.vertx.core.Future", "io.reactivex.rxjava3.core.Flowable",
+            "com.github.javaparser.ast.CompilationUnit", "T"
+    };
+
+    private final ParserConfigurator parserConfigurator = new ParserConfigurator();
+    private final TypeFilter overriddenFilter = TypeFilter.DEFAULT.withOverrides(List.of(
+            "+java.util.concurrent.**", "-javax.**", "-io.*.core.**", "+io.vertx.core.Future",
+            "-com.github.**", "-org.slf4j.**", "-*.util.TypeDependency", "+reactive.**"
+    ));
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void shouldIncludeType(Blackhole blackhole) {
+        for (String typeName : TYPE_NAMES) {
+            blackhole.consume(this.parserConfigurator.shouldIncludeType(typeName));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void overriddenFilter(Blackhole blackhole) {
+        for (String typeName : TYPE_NAMES) {
+            blackhole.consume(this.overriddenFilter.test(typeName));
+        }
+    }
+}
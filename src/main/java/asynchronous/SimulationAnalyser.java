@@ -1,7 +1,7 @@
 package asynchronous;
 
-import asynchronous.analyser.DependencyAnalyserVerticle;
-import io.vertx.core.Vertx;
+import asynchronous.analyser.*;
+import io.vertx.core.*;
 
 
 /* Implemented by:
@@ -22,10 +22,21 @@ import io.vertx.core.Vertx;
     Email: gioele.santi2@studio.unibo.it
 */
 public class SimulationAnalyser {
+    // Number of worker verticle instances, each with its own worker pool; 0 runs the whole analysis in a single verticle
+    private static final int WORKER_INSTANCES = Integer.getInteger("analyser.workers", 0);
+
     public static void main(String[] args) {
         final Vertx vertx = Vertx.vertx();
 
-        vertx.deployVerticle(new DependencyAnalyserVerticle())
-                .onComplete(r -> vertx.close());
+        if (WORKER_INSTANCES > 0) {
+            // Coordinator/worker mode, tasks are spread over the worker instances through the event bus
+            vertx.deployVerticle(AnalysisWorkerVerticle.class, new DeploymentOptions().setInstances(WORKER_INSTANCES))
+                    .compose(workers -> vertx.deployVerticle(new AnalysisCoordinatorVerticle()))
+                    .onFailure(System.err::println)
+                    .onComplete(r -> vertx.close());
+        } else {
+            vertx.deployVerticle(new DependencyAnalyserVerticle())
+                    .onComplete(r -> vertx.close());
+        }
     }
 }
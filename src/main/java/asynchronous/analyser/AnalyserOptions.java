@@ -0,0 +1,200 @@
+package asynchronous.analyser;
+
+import common.*;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Configuration options for a {@link DependencyAnalyserLib} instance.
+ */
+public class AnalyserOptions {
+    public static final int DEFAULT_WORKER_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_STREAM_WINDOW_SIZE = 256;
+    public static final int DEFAULT_MAX_IN_FLIGHT_READS = 128;
+    public static final int DEFAULT_MAX_IN_FLIGHT_PARSES = DEFAULT_WORKER_POOL_SIZE;
+    public static final long DEFAULT_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+    public static final int DEFAULT_CACHE_MAX_ENTRIES = 100_000;
+
+    private int workerPoolSize;
+    private int streamWindowSize;
+    private int maxInFlightReads;
+    private int maxInFlightParses;
+    private AnalysisLevel analysisLevel;
+    private TypeFilter typeFilter;
+    private int maxCachedSourceRoots;
+    private long typeSolverCacheSize;
+    private Path cacheDirectory;
+    private long cacheMaxBytes;
+    private int cacheMaxEntries;
+
+    public AnalyserOptions() {
+        this.workerPoolSize = DEFAULT_WORKER_POOL_SIZE;
+        this.streamWindowSize = DEFAULT_STREAM_WINDOW_SIZE;
+        this.maxInFlightReads = DEFAULT_MAX_IN_FLIGHT_READS;
+        this.maxInFlightParses = DEFAULT_MAX_IN_FLIGHT_PARSES;
+        this.analysisLevel = AnalysisLevel.FULL_RESOLUTION;
+        this.typeFilter = TypeFilter.DEFAULT;
+        this.maxCachedSourceRoots = ParserConfigurator.DEFAULT_MAX_CACHED_SOURCE_ROOTS;
+        this.typeSolverCacheSize = ParserConfigurator.DEFAULT_TYPE_SOLVER_CACHE_SIZE;
+        this.cacheMaxBytes = DEFAULT_CACHE_MAX_BYTES;
+        this.cacheMaxEntries = DEFAULT_CACHE_MAX_ENTRIES;
+    }
+
+    // Options from a verticle configuration, missing keys keep their default
+    public AnalyserOptions(JsonObject config) {
+        this();
+        this.setWorkerPoolSize(config.getInteger("workerPoolSize", this.workerPoolSize));
+        this.setStreamWindowSize(config.getInteger("streamWindowSize", this.streamWindowSize));
+        this.setMaxInFlightReads(config.getInteger("maxInFlightReads", this.maxInFlightReads));
+        this.setMaxInFlightParses(config.getInteger("maxInFlightParses", this.maxInFlightParses));
+        this.setAnalysisLevel(AnalysisLevel.valueOf(config.getString("analysisLevel", this.analysisLevel.name())));
+        // Rules added to the default filter, e.g. ["+java.util.concurrent.**", "-org.slf4j.**"]
+        if (config.containsKey("typeFilter")) {
+            List<String> rules = new ArrayList<>();
+            config.getJsonArray("typeFilter").forEach(rule -> rules.add(String.valueOf(rule)));
+            this.setTypeFilter(TypeFilter.DEFAULT.withOverrides(rules));
+        }
+        this.setMaxCachedSourceRoots(config.getInteger("maxCachedSourceRoots", this.maxCachedSourceRoots));
+        this.setTypeSolverCacheSize(config.getLong("typeSolverCacheSize", this.typeSolverCacheSize));
+        String cacheDirectory = config.getString("cacheDirectory");
+        if (cacheDirectory != null) {
+            this.setCacheDirectory(Path.of(cacheDirectory));
+        }
+        this.setCacheMaxBytes(config.getLong("cacheMaxBytes", this.cacheMaxBytes));
+        this.setCacheMaxEntries(config.getInteger("cacheMaxEntries", this.cacheMaxEntries));
+    }
+
+    public int getWorkerPoolSize() {
+        return this.workerPoolSize;
+    }
+
+    // Number of worker threads used for the CPU-heavy parse and visit stage
+    public AnalyserOptions setWorkerPoolSize(int workerPoolSize) {
+        if (workerPoolSize < 1) {
+            throw new IllegalArgumentException("Worker pool size must be positive: " + workerPoolSize);
+        }
+        this.workerPoolSize = workerPoolSize;
+        return this;
+    }
+
+    public int getStreamWindowSize() {
+        return this.streamWindowSize;
+    }
+
+    // Maximum number of running plus undelivered class reports of a streamed analysis
+    public AnalyserOptions setStreamWindowSize(int streamWindowSize) {
+        if (streamWindowSize < 1) {
+            throw new IllegalArgumentException("Stream window size must be positive: " + streamWindowSize);
+        }
+        this.streamWindowSize = streamWindowSize;
+        return this;
+    }
+
+    public int getMaxInFlightReads() {
+        return this.maxInFlightReads;
+    }
+
+    // Files read and not yet analysed at any time, this bounds the file contents held in memory
+    public AnalyserOptions setMaxInFlightReads(int maxInFlightReads) {
+        if (maxInFlightReads < 1) {
+            throw new IllegalArgumentException("Max in-flight reads must be positive: " + maxInFlightReads);
+        }
+        this.maxInFlightReads = maxInFlightReads;
+        return this;
+    }
+
+    public int getMaxInFlightParses() {
+        return this.maxInFlightParses;
+    }
+
+    // Files handed to the worker pool at any time, never more than the in-flight reads
+    public AnalyserOptions setMaxInFlightParses(int maxInFlightParses) {
+        if (maxInFlightParses < 1) {
+            throw new IllegalArgumentException("Max in-flight parses must be positive: " + maxInFlightParses);
+        }
+        this.maxInFlightParses = maxInFlightParses;
+        return this;
+    }
+
+    public AnalysisLevel getAnalysisLevel() {
+        return this.analysisLevel;
+    }
+
+    // IMPORTS_ONLY skips the symbol solver entirely, trading precision for speed
+    public AnalyserOptions setAnalysisLevel(AnalysisLevel analysisLevel) {
+        this.analysisLevel = Objects.requireNonNull(analysisLevel);
+        return this;
+    }
+
+    public TypeFilter getTypeFilter() {
+        return this.typeFilter;
+    }
+
+    // Rules deciding which resolved types are reported, TypeFilter.DEFAULT leaves out the JDK and the UI libraries
+    public AnalyserOptions setTypeFilter(TypeFilter typeFilter) {
+        this.typeFilter = Objects.requireNonNull(typeFilter);
+        return this;
+    }
+
+    public int getMaxCachedSourceRoots() {
+        return this.maxCachedSourceRoots;
+    }
+
+    // Number of project roots whose warm type solvers are kept between runs
+    public AnalyserOptions setMaxCachedSourceRoots(int maxCachedSourceRoots) {
+        if (maxCachedSourceRoots < 1) {
+            throw new IllegalArgumentException("Cached source roots must be positive: " + maxCachedSourceRoots);
+        }
+        this.maxCachedSourceRoots = maxCachedSourceRoots;
+        return this;
+    }
+
+    public long getTypeSolverCacheSize() {
+        return this.typeSolverCacheSize;
+    }
+
+    // Parsed files kept by each source-folder type solver, UNBOUNDED_TYPE_SOLVER_CACHE for no limit
+    public AnalyserOptions setTypeSolverCacheSize(long typeSolverCacheSize) {
+        if (typeSolverCacheSize < 1 && typeSolverCacheSize != ParserConfigurator.UNBOUNDED_TYPE_SOLVER_CACHE) {
+            throw new IllegalArgumentException("Type solver cache size must be positive: " + typeSolverCacheSize);
+        }
+        this.typeSolverCacheSize = typeSolverCacheSize;
+        return this;
+    }
+
+    public Path getCacheDirectory() {
+        return this.cacheDirectory;
+    }
+
+    // Directory of the persistent result cache, null disables caching; only IMPORTS_ONLY results are cached
+    public AnalyserOptions setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        return this;
+    }
+
+    public long getCacheMaxBytes() {
+        return this.cacheMaxBytes;
+    }
+
+    public AnalyserOptions setCacheMaxBytes(long cacheMaxBytes) {
+        if (cacheMaxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + cacheMaxBytes);
+        }
+        this.cacheMaxBytes = cacheMaxBytes;
+        return this;
+    }
+
+    public int getCacheMaxEntries() {
+        return this.cacheMaxEntries;
+    }
+
+    public AnalyserOptions setCacheMaxEntries(int cacheMaxEntries) {
+        if (cacheMaxEntries < 1) {
+            throw new IllegalArgumentException("Cache entry limit must be positive: " + cacheMaxEntries);
+        }
+        this.cacheMaxEntries = cacheMaxEntries;
+        return this;
+    }
+}
@@ -0,0 +1,137 @@
+package asynchronous.analyser;
+
+import asynchronous.report.*;
+import common.SourceHeaderScanner;
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Coordinator side of a distributed analysis.
+ * It walks the project, sends one task per source file to the {@link AnalysisWorkerVerticle} instances
+ * and aggregates their replies into a {@link ProjectDepsReport}. At most a fixed number of tasks is in
+ * flight, so the event bus is not flooded on large projects.
+ */
+public class AnalysisCoordinatorVerticle extends AbstractVerticle {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    public static final long DEFAULT_TASK_TIMEOUT = 5 * 60 * 1000L;
+
+    private final SourceHeaderScanner headerScanner = new SourceHeaderScanner();
+    private int maxInFlight;
+    private DeliveryOptions deliveryOptions;
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        this.maxInFlight = config().getInteger("maxInFlight", DEFAULT_MAX_IN_FLIGHT);
+        this.deliveryOptions = new DeliveryOptions()
+                .setSendTimeout(config().getLong("taskTimeout", DEFAULT_TASK_TIMEOUT));
+        Path projectPath = Path.of(config().getString("projectPath", System.getProperty("user.dir")));
+
+        this.getProjectDependencies(projectPath)
+                .onSuccess(projectReport -> {
+                    System.out.println(projectReport.toString());
+                    startPromise.complete();
+                })
+                .onFailure(startPromise::fail);
+    }
+
+    public Future<ProjectDepsReport> getProjectDependencies(Path projectSrcFolder) {
+        if (!projectSrcFolder.toFile().isDirectory()) {
+            return Future.failedFuture(projectSrcFolder + " is not a directory");
+        }
+
+        ProjectAnalysis analysis = new ProjectAnalysis(projectSrcFolder);
+        new SourceDiscovery(this.vertx, this::readPackageName)
+                .discover(projectSrcFolder, analysis::addPackage)
+                .onSuccess(walked -> analysis.discoveryCompleted())
+                .onFailure(analysis.promise::tryFail);
+        return analysis.promise.future();
+    }
+
+    private String readPackageName(Path javaFile) {
+        try {
+            String packageName = this.headerScanner.scan(javaFile).getPackageName();
+            return packageName.isEmpty() ? null : packageName;
+        } catch (IOException ignored) {
+        }
+
+        return null;
+    }
+
+    // State of one project analysis, only touched on the coordinator event loop
+    private class ProjectAnalysis {
+        private final Path projectSrcFolder;
+        private final ProjectDepsReport projectReport;
+        private final Promise<ProjectDepsReport> promise;
+        private final Deque<Task> pendingTasks;
+        private int inFlight;
+        private boolean discoveryCompleted;
+
+        private ProjectAnalysis(Path projectSrcFolder) {
+            this.projectSrcFolder = projectSrcFolder.toAbsolutePath();
+            this.projectReport = new ProjectDepsReport(String.valueOf(projectSrcFolder.getFileName()));
+            this.promise = Promise.promise();
+            this.pendingTasks = new ArrayDeque<>();
+        }
+
+        private void addPackage(SourceDiscovery.PackageSources packageSources) {
+            PackageDepsReport packageReport = new PackageDepsReport(packageSources.getPackageName());
+            this.projectReport.addPackageReport(packageReport);
+            for (Path javaFile : packageSources.getJavaFiles()) {
+                this.pendingTasks.add(new Task(javaFile, packageReport));
+            }
+            this.pump();
+        }
+
+        private void discoveryCompleted() {
+            this.discoveryCompleted = true;
+            this.pump();
+        }
+
+        private void pump() {
+            if (this.promise.future().isComplete()) {
+                return;
+            }
+            while (this.inFlight < maxInFlight && !this.pendingTasks.isEmpty()) {
+                this.send(this.pendingTasks.poll());
+            }
+            if (this.discoveryCompleted && this.inFlight == 0 && this.pendingTasks.isEmpty()) {
+                this.promise.tryComplete(this.projectReport);
+            }
+        }
+
+        private void send(Task task) {
+            JsonObject body = new JsonObject()
+                    .put(AnalysisWorkerVerticle.FILE_KEY, task.javaFile.toAbsolutePath().toString())
+                    .put(AnalysisWorkerVerticle.PROJECT_KEY, this.projectSrcFolder.toString());
+
+            this.inFlight++;
+            vertx.eventBus().<Buffer>request(AnalysisWorkerVerticle.ANALYSE_ADDRESS, body, deliveryOptions)
+                    .onComplete(reply -> {
+                        this.inFlight--;
+                        if (reply.succeeded()) {
+                            task.packageReport.addClassReport(ClassDepsReportCodec.decode(reply.result().body().getBytes()));
+                            this.pump();
+                        } else {
+                            this.promise.tryFail("Error analysing " + task.javaFile.getFileName() + ": "
+                                    + reply.cause().getMessage());
+                        }
+                    });
+        }
+    }
+
+    private static class Task {
+        private final Path javaFile;
+        private final PackageDepsReport packageReport;
+
+        private Task(Path javaFile, PackageDepsReport packageReport) {
+            this.javaFile = javaFile;
+            this.packageReport = packageReport;
+        }
+    }
+}
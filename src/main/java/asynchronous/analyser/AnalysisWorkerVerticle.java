@@ -0,0 +1,51 @@
+package asynchronous.analyser;
+
+import asynchronous.report.ClassDepsReportCodec;
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.*;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.file.Path;
+
+/**
+ * Worker side of a distributed analysis.
+ * Every instance consumes per-file tasks sent by an {@link AnalysisCoordinatorVerticle} on
+ * {@link #ANALYSE_ADDRESS} and replies with the class report encoded by {@link ClassDepsReportCodec}.
+ * The event bus balances the tasks between the deployed instances, in a cluster the files must be
+ * reachable at the same path from every node.
+ * Every instance parses on its own pool of {@link AnalyserOptions#getWorkerPoolSize()} threads, so
+ * deploying more instances, or more nodes, raises the number of files parsed at once.
+ */
+public class AnalysisWorkerVerticle extends AbstractVerticle {
+    public static final String ANALYSE_ADDRESS = "dependency-analyser.analyse";
+    public static final String FILE_KEY = "file";
+    public static final String PROJECT_KEY = "project";
+    public static final int ANALYSIS_FAILED = 1;
+
+    private DependencyAnalyserLib dependencyAnalyser;
+    private MessageConsumer<JsonObject> consumer;
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        this.dependencyAnalyser = new DependencyAnalyserLib(this.vertx, new AnalyserOptions(config()));
+        this.consumer = this.vertx.eventBus().consumer(ANALYSE_ADDRESS, this::analyse);
+        this.consumer.completionHandler(startPromise);
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+        this.consumer.unregister()
+                .compose(v -> this.dependencyAnalyser.close())
+                .onComplete(stopPromise);
+    }
+
+    private void analyse(Message<JsonObject> task) {
+        Path classSrcFile = Path.of(task.body().getString(FILE_KEY));
+        Path projectSrcFolder = Path.of(task.body().getString(PROJECT_KEY));
+
+        this.dependencyAnalyser.getClassDependencies(classSrcFile, projectSrcFolder)
+                .onSuccess(report -> task.reply(Buffer.buffer(ClassDepsReportCodec.encode(report))))
+                .onFailure(e -> task.fail(ANALYSIS_FAILED, String.valueOf(e.getMessage())));
+    }
+}
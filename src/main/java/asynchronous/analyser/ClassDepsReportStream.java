@@ -0,0 +1,190 @@
+package asynchronous.analyser;
+
+import asynchronous.report.*;
+import io.vertx.core.*;
+import io.vertx.core.streams.ReadStream;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Stream of the class reports of a project, emitted as soon as each class has been analysed.
+ * Discovered files are only analysed while the number of running and undelivered reports
+ * stays below the window, so a paused or slow consumer keeps memory bounded.
+ * All the state is confined to the context the stream was created on.
+ */
+public class ClassDepsReportStream implements ReadStream<ClassDepsReport> {
+    private final Context context;
+    private final String projectName;
+    private final int windowSize;
+    private final Function<Path, Future<ClassDepsReport>> classAnalyser;
+    private final Promise<ProjectDepsSummary> summary;
+    private final Deque<Path> pendingFiles;
+    private final Deque<ClassDepsReport> readyReports;
+    private Handler<ClassDepsReport> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+    private long demand;
+    private int inFlight;
+    private boolean discoveryCompleted;
+    private boolean ended;
+    private int packageCount;
+    private int classCount;
+    private long dependencyCount;
+    private int failedClassCount;
+    private long unqualifiedTypeCount;
+
+    public ClassDepsReportStream(Context context, String projectName, int windowSize,
+                                 Function<Path, Future<ClassDepsReport>> classAnalyser) {
+        this.context = context;
+        this.projectName = projectName;
+        this.windowSize = windowSize;
+        this.classAnalyser = classAnalyser;
+        this.summary = Promise.promise();
+        this.pendingFiles = new ArrayDeque<>();
+        this.readyReports = new ArrayDeque<>();
+        this.demand = Long.MAX_VALUE;
+    }
+
+    // Completes with the project totals once every class report has been emitted
+    public Future<ProjectDepsSummary> summary() {
+        return this.summary.future();
+    }
+
+    @Override
+    public ClassDepsReportStream handler(Handler<ClassDepsReport> handler) {
+        this.handler = handler;
+        this.context.runOnContext(v -> this.pump());
+        return this;
+    }
+
+    @Override
+    public ClassDepsReportStream endHandler(Handler<Void> endHandler) {
+        this.endHandler = endHandler;
+        return this;
+    }
+
+    @Override
+    public ClassDepsReportStream exceptionHandler(Handler<Throwable> exceptionHandler) {
+        this.exceptionHandler = exceptionHandler;
+        return this;
+    }
+
+    @Override
+    public ClassDepsReportStream pause() {
+        this.onContext(v -> this.demand = 0);
+        return this;
+    }
+
+    @Override
+    public ClassDepsReportStream resume() {
+        return this.fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ClassDepsReportStream fetch(long amount) {
+        if (amount > 0) {
+            this.onContext(v -> {
+                this.demand = Long.MAX_VALUE - this.demand > amount ? this.demand + amount : Long.MAX_VALUE;
+                // Delivered later, never from within the handler that asked for more
+                this.context.runOnContext(w -> this.pump());
+            });
+        }
+        return this;
+    }
+
+    // Called by the discovery for every package found
+    void addPackage(SourceDiscovery.PackageSources packageSources) {
+        this.packageCount++;
+        this.pendingFiles.addAll(packageSources.getJavaFiles());
+        this.pump();
+    }
+
+    // Called once the discovery walk is over
+    void discoveryCompleted(AsyncResult<Void> result) {
+        if (result.failed()) {
+            this.fail(result.cause());
+            return;
+        }
+        this.discoveryCompleted = true;
+        this.pump();
+    }
+
+    void fail(Throwable cause) {
+        if (this.ended) {
+            return;
+        }
+        this.ended = true;
+        this.pendingFiles.clear();
+        this.readyReports.clear();
+        if (this.exceptionHandler != null) {
+            this.exceptionHandler.handle(cause);
+        }
+        this.summary.tryFail(cause);
+    }
+
+    private void pump() {
+        if (this.ended) {
+            return;
+        }
+
+        // Deliver what the consumer asked for
+        while (this.handler != null && this.demand > 0 && !this.readyReports.isEmpty()) {
+            if (this.demand != Long.MAX_VALUE) {
+                this.demand--;
+            }
+            this.handler.handle(this.readyReports.poll());
+        }
+
+        // Refill the window with new analyses
+        while (this.inFlight + this.readyReports.size() < this.windowSize && !this.pendingFiles.isEmpty()) {
+            this.launch(this.pendingFiles.poll());
+        }
+
+        if (this.discoveryCompleted && this.pendingFiles.isEmpty()
+                && this.inFlight == 0 && this.readyReports.isEmpty()) {
+            this.end();
+        }
+    }
+
+    // Consumers may pause or fetch from any thread, the state is only touched on the stream context;
+    // on that context already, the change applies at once so a pause stops the current delivery
+    private void onContext(Handler<Void> action) {
+        if (Vertx.currentContext() == this.context) {
+            action.handle(null);
+        } else {
+            this.context.runOnContext(action);
+        }
+    }
+
+    private void launch(Path javaFile) {
+        this.inFlight++;
+        this.classAnalyser.apply(javaFile).onComplete(result -> this.context.runOnContext(v -> {
+            this.inFlight--;
+            if (result.succeeded()) {
+                ClassDepsReport classReport = result.result();
+                this.classCount++;
+                this.dependencyCount += classReport.getDependencyCount();
+                this.unqualifiedTypeCount += classReport.getUnqualifiedTypeCount();
+                this.readyReports.add(classReport);
+            } else {
+                // A single unparsable file does not stop the stream
+                this.failedClassCount++;
+                if (this.exceptionHandler != null) {
+                    this.exceptionHandler.handle(result.cause());
+                }
+            }
+            this.pump();
+        }));
+    }
+
+    private void end() {
+        this.ended = true;
+        if (this.endHandler != null) {
+            this.endHandler.handle(null);
+        }
+        this.summary.complete(new ProjectDepsSummary(this.projectName, this.packageCount, this.classCount,
+                this.dependencyCount, this.failedClassCount, this.unqualifiedTypeCount));
+    }
+}
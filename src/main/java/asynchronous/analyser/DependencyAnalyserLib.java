@@ -4,118 +4,316 @@ import com.github.javaparser.*;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import asynchronous.report.*;
-import common.ParserConfigurator;
+import common.*;
 import io.vertx.core.*;
 
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Main class that provides asynchronous methods for analysing dependencies of classes,
  * packages and Java projects.
  * It uses specific analysers to perform the analysis asynchronously.
+ * Discovery and aggregation run on the event loop, while loading, parsing and visiting
+ * are executed on a bounded worker pool.
+ * The number of files being read or analysed at once is limited, further files wait in a queue.
+ * Every instance owns its worker pool, so instances deployed side by side add parsing capacity.
  */
 public class DependencyAnalyserLib {
+    private static final String WORKER_POOL_NAME = "dependency-analyser-worker-";
+    private static final AtomicInteger NEXT_POOL_ID = new AtomicInteger();
+    private static final String CACHE_VERSION = "async-6";
     private final Vertx vertx;
-    private JavaParser parser;
+    private final WorkerExecutor workerExecutor;
+    private final TaskScheduler readScheduler;
+    private final TaskScheduler parseScheduler;
+    private final AnalyserOptions options;
     private final ParserConfigurator parserConfigurator;
+    private final SourceHeaderScanner headerScanner;
+    private final SourceLoader sourceLoader;
+    private final DiskCache resultCache;
+    private final AnalysisMetrics metrics;
 
     public DependencyAnalyserLib(Vertx vertx) {
+        this(vertx, new AnalyserOptions());
+    }
+
+    /**
+     * @throws UncheckedIOException when the result cache directory of the options cannot be opened
+     */
+    public DependencyAnalyserLib(Vertx vertx, AnalyserOptions options) {
+        // Opened first, so a failure leaves no worker pool behind
+        this.resultCache = openResultCache(options);
         this.vertx = vertx;
-        this.parserConfigurator = new ParserConfigurator();
-        this.parser = parserConfigurator.getParser();
+        // Named executors with the same name share their threads, a unique name gives this instance its own pool
+        this.workerExecutor = vertx.createSharedWorkerExecutor(WORKER_POOL_NAME + NEXT_POOL_ID.incrementAndGet(),
+                options.getWorkerPoolSize());
+        this.readScheduler = new TaskScheduler(vertx, options.getMaxInFlightReads());
+        this.parseScheduler = new TaskScheduler(vertx, options.getMaxInFlightParses());
+        this.options = options;
+        this.parserConfigurator = new ParserConfigurator(options.getAnalysisLevel(),
+                options.getMaxCachedSourceRoots(), options.getTypeSolverCacheSize());
+        this.parserConfigurator.setTypeFilter(options.getTypeFilter());
+        this.headerScanner = new SourceHeaderScanner();
+        this.sourceLoader = new SourceLoader();
+        this.metrics = new AnalysisMetrics();
+        this.metrics.registerQueue("queuedReads", this.readScheduler::getQueuedCount);
+        this.metrics.registerQueue("queuedParses", this.parseScheduler::getQueuedCount);
+        this.metrics.registerQueue("inFlightParses", this.parseScheduler::getInFlightCount);
+    }
+
+    // Null when the options disable caching
+    private static DiskCache openResultCache(AnalyserOptions options) {
+        if (options.getCacheDirectory() == null) {
+            return null;
+        }
+        try {
+            return DiskCache.open(options.getCacheDirectory(), options.getCacheMaxBytes(), options.getCacheMaxEntries());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     public Future<ClassDepsReport> getClassDependencies(Path classSrcFile) {
-        Promise<ClassDepsReport> promise = Promise.promise();
+        return this.getClassDependencies(classSrcFile, this.parserConfigurator.getParserProvider());
+    }
 
-        this.vertx.fileSystem().readFile(classSrcFile.toString(), read -> {
-            if (read.succeeded()) {
-                String sourceCode = read.result().toString("UTF-8");
-                ParseResult<CompilationUnit> parseResult = this.parser.parse(sourceCode);
+    // Analyse a single file of a project, resolving its symbols against the project sources
+    public Future<ClassDepsReport> getClassDependencies(Path classSrcFile, Path projectSrcFolder) {
+        return this.getClassDependencies(classSrcFile,
+                this.parserConfigurator.getParserProvider(List.of(projectSrcFolder.toFile())));
+    }
 
-                if (parseResult == null || !parseResult.isSuccessful() || parseResult.getResult().isEmpty()) {
-                    promise.fail("Failed to parse " + classSrcFile.getFileName() + ": " +
-                            (parseResult != null ? parseResult.getProblems() : "ParseResult is null"));
-                    return;
-                }
+    public Future<PackageDepsReport> getPackageDependencies(Path packageSrcFolder) {
+        if(!packageSrcFolder.toFile().isDirectory()
+                || !packageSrcFolder.toFile().exists()) {
+            return Future.failedFuture(packageSrcFolder + " is not a directory");
+        }
+
+        ParserProvider parserProvider = this.parserConfigurator.getParserProvider();
+        return this.createSourceDiscovery()
+                .listPackage(packageSrcFolder)
+                .compose(packageSources -> this.getPackageDependencies(packageSources, parserProvider));
+    }
+
+    public Future<ProjectDepsReport> getProjectDependencies(Path projectSrcFolder) {
+        Promise<ProjectDepsReport> promise = Promise.promise();
+
+        if(!projectSrcFolder.toFile().isDirectory()
+                || !projectSrcFolder.toFile().exists()) {
+            return Future.failedFuture(projectSrcFolder + " is not a directory");
+        }
+
+        // Parsers of this source root, warm from previous runs, each thread still has its own
+        ParserProvider parserProvider = this.parserConfigurator.getParserProvider(List.of(projectSrcFolder.toFile()));
+        String projectName = projectSrcFolder.getFileName().toString();
+        ProjectDepsReport projectReport = new ProjectDepsReport(projectName);
+
+        // Packages are analysed as soon as the walk finds them
+        List<Future<PackageDepsReport>> packageDepsFutures = new ArrayList<>();
+        this.createSourceDiscovery()
+                .discover(projectSrcFolder, packageSources ->
+                        packageDepsFutures.add(this.getPackageDependencies(packageSources, parserProvider)))
+                .compose(walked -> CompositeFuture.all(new ArrayList<>(packageDepsFutures)))
+                .onSuccess(result -> {
+                    long start = this.metrics.start();
+                    for (int i = 0; i < result.size(); i++) {
+                        PackageDepsReport packageReport = result.resultAt(i);
+                        projectReport.addPackageReport(packageReport);
+                    }
+                    this.metrics.record(AnalysisMetrics.Phase.AGGREGATE, start);
+                    promise.complete(projectReport);
+                }).onFailure(promise::fail);
 
-                CompilationUnit cu = parseResult.getResult().get();
-                String className = cu.getPackageDeclaration()
-                        .map(pd -> pd.getName().asString() + ".")
-                        .orElse("") + getMainClassName(cu);
-                ClassDepsReport classReport = new ClassDepsReport(className);
+        return promise.future();
+    }
 
-                // Visit the AST to find dependencies
-                cu.accept(new DependencyVisitor(classReport, className, parserConfigurator), null);
+    /**
+     * Streaming variant of {@link #getProjectDependencies(Path)}: every class report is emitted
+     * as soon as it is ready instead of being collected in a {@link ProjectDepsReport}.
+     * The project totals are available through {@link ClassDepsReportStream#summary()}.
+     */
+    public ClassDepsReportStream streamProjectDependencies(Path projectSrcFolder) {
+        Context context = this.vertx.getOrCreateContext();
+        ParserProvider parserProvider = this.parserConfigurator.getParserProvider(List.of(projectSrcFolder.toFile()));
+        ClassDepsReportStream stream = new ClassDepsReportStream(context,
+                String.valueOf(projectSrcFolder.getFileName()), this.options.getStreamWindowSize(),
+                javaFile -> this.getClassDependencies(javaFile, parserProvider));
 
-                promise.complete(classReport);
-            } else {
-                promise.fail("Error reading file " + classSrcFile.getFileName() + ": " + read.cause().getMessage());
+        // Start on the stream context, after the caller had the chance to set its handlers
+        context.runOnContext(v -> {
+            if (!projectSrcFolder.toFile().isDirectory()) {
+                stream.fail(new IllegalArgumentException(projectSrcFolder + " is not a directory"));
+                return;
             }
+            this.createSourceDiscovery()
+                    .discover(projectSrcFolder, stream::addPackage)
+                    .onComplete(stream::discoveryCompleted);
         });
 
-        return promise.future();
+        return stream;
     }
 
-    public Future<PackageDepsReport> getPackageDependencies(Path packageSrcFolder) {
-        Promise<PackageDepsReport> promise = Promise.promise();
+    // Persist a project report in the compact binary format, or as JSON when the file name ends with .json
+    public Future<Void> saveProjectReport(ProjectDepsReport projectReport, Path reportFile) {
+        return this.workerExecutor.executeBlocking(save -> {
+            try {
+                if (reportFile.getFileName().toString().endsWith(".json")) {
+                    try (ReportJsonWriter writer = new ReportJsonWriter(Files.newBufferedWriter(reportFile))) {
+                        writer.writeProject(projectReport);
+                    }
+                } else {
+                    try (ReportBinaryWriter writer = new ReportBinaryWriter(Files.newOutputStream(reportFile),
+                            projectReport.getProjectName())) {
+                        writer.writeProject(projectReport);
+                    }
+                }
+                save.complete();
+            } catch (IOException e) {
+                save.fail(e);
+            }
+        }, false);
+    }
 
-        if(!packageSrcFolder.toFile().isDirectory()
-                || !packageSrcFolder.toFile().exists()) {
-            return Future.failedFuture(packageSrcFolder + " is not a directory");
+    // Reload a project report saved in the binary format, without parsing the sources again
+    public Future<ProjectDepsReport> loadProjectReport(Path reportFile) {
+        return this.workerExecutor.executeBlocking(load -> {
+            try (ReportBinaryReader reader = new ReportBinaryReader(Files.newInputStream(reportFile))) {
+                load.complete(reader.readProject());
+            } catch (IOException e) {
+                load.fail(e);
+            }
+        }, false);
+    }
+
+    // Counters of the result cache, empty when caching is disabled
+    public Optional<DiskCache.CacheStats> getCacheStats() {
+        return Optional.ofNullable(this.resultCache).map(DiskCache::getStats);
+    }
+
+    // Forget the warm type solvers of a project, to be called when its sources changed
+    public void invalidateTypeSolvers(Path projectSrcFolder) {
+        this.parserConfigurator.invalidate(List.of(projectSrcFolder.toFile()));
+    }
+
+    // Phase timings and counters of every analysis run by this instance, see AnalysisMetrics#snapshot()
+    public AnalysisMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    // Counters of the type resolution cache shared by all analyses of this instance
+    public TypeResolutionCache.ResolutionStats getResolutionStats() {
+        return this.parserConfigurator.getResolutionCache().getStats();
+    }
+
+    public void invalidateCache() {
+        if (this.resultCache != null) {
+            this.resultCache.invalidateAll();
         }
+    }
 
-        String packageName = inferPackageName(packageSrcFolder.toFile());
-        PackageDepsReport packageReport = new PackageDepsReport(packageName);
+    // Release the worker pool used by this analyser
+    public Future<Void> close() {
+        return this.workerExecutor.close();
+    }
 
-        File[] javaFiles = packageSrcFolder.toFile().listFiles((dir, name) -> name.endsWith(".java"));
-        if (javaFiles == null || javaFiles.length == 0) {
+    private Future<ClassDepsReport> getClassDependencies(Path classSrcFile, ParserProvider parserProvider) {
+        // The read permit is held until the file is analysed, the parse permit while it is on the worker pool
+        return this.readScheduler.submit(() -> this.parseScheduler.submit(() ->
+                // Load, parse and visit on the worker pool, the result is delivered back on the event loop
+                this.workerExecutor.<ClassDepsReport>executeBlocking(task -> {
+                    SourceLoader.Source source;
+                    long start = this.metrics.start();
+                    try {
+                        source = this.sourceLoader.load(classSrcFile);
+                    } catch (IOException e) {
+                        task.fail("Error reading file " + classSrcFile.getFileName() + ": " + e.getMessage());
+                        return;
+                    } finally {
+                        this.metrics.record(AnalysisMetrics.Phase.READ, start);
+                    }
+                    task.complete(this.analyseCached(classSrcFile, source, parserProvider));
+                }, false)))
+                .onSuccess(report -> this.metrics.fileAnalysed())
+                .onFailure(e -> this.metrics.fileFailed());
+    }
+
+    private Future<PackageDepsReport> getPackageDependencies(SourceDiscovery.PackageSources packageSources,
+                                                             ParserProvider parserProvider) {
+        Promise<PackageDepsReport> promise = Promise.promise();
+        PackageDepsReport packageReport = new PackageDepsReport(packageSources.getPackageName());
+
+        List<Path> javaFiles = packageSources.getJavaFiles();
+        if (javaFiles.isEmpty()) {
             return Future.succeededFuture(packageReport);
         }
         List<Future<ClassDepsReport>> classDepsFutures = new ArrayList<>();
-        for (File javaFile : javaFiles) {
-            classDepsFutures.add(this.getClassDependencies(javaFile.toPath()));
+        for (Path javaFile : javaFiles) {
+            classDepsFutures.add(this.getClassDependencies(javaFile, parserProvider));
         }
         CompositeFuture.all(new ArrayList<>(classDepsFutures)).onSuccess(result -> {
+            long start = this.metrics.start();
             for (int i = 0; i < result.size(); i++) {
                 ClassDepsReport classReport = result.resultAt(i);
                 packageReport.addClassReport(classReport);
             }
+            this.metrics.record(AnalysisMetrics.Phase.AGGREGATE, start);
             promise.complete(packageReport);
         }).onFailure(promise::fail);
 
         return promise.future();
     }
 
-    public Future<ProjectDepsReport> getProjectDependencies(Path projectSrcFolder) {
-        Promise<ProjectDepsReport> promise = Promise.promise();
+    // Serve the report from the result cache when the content was already analysed, runs on a worker thread
+    private ClassDepsReport analyseCached(Path classSrcFile, SourceLoader.Source source, ParserProvider parserProvider) {
+        // Resolved symbols depend on the other files of the project, which the content hash cannot see
+        if (this.resultCache == null || this.parserConfigurator.getAnalysisLevel() != AnalysisLevel.IMPORTS_ONLY) {
+            return this.analyseSource(classSrcFile, source, parserProvider);
+        }
 
-        if(!projectSrcFolder.toFile().isDirectory()
-                || !projectSrcFolder.toFile().exists()) {
-            return Future.failedFuture(projectSrcFolder + " is not a directory");
+        // Dependencies record the file they were found in, so the path is part of the key
+        String cacheKey = DiskCache.key(CACHE_VERSION + "|" + this.parserConfigurator.getConfigurationKey()
+                + "|" + classSrcFile.toAbsolutePath().normalize(), source.getBytes());
+        Optional<byte[]> cached = this.resultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            try {
+                return ClassDepsReportCodec.decode(cached.get());
+            } catch (IllegalArgumentException ignored) {
+                // Unreadable entry, analyse again and overwrite it
+            }
         }
 
-        this.parser = parserConfigurator.createParserWithResolvers(List.of(projectSrcFolder.toFile()));
-        List<Path> packageDirs = findPackageDirectories(projectSrcFolder);
+        ClassDepsReport classReport = this.analyseSource(classSrcFile, source, parserProvider);
+        this.resultCache.put(cacheKey, ClassDepsReportCodec.encode(classReport));
+        return classReport;
+    }
 
-        String projectName = projectSrcFolder.getFileName().toString();
-        ProjectDepsReport projectReport = new ProjectDepsReport(projectName);
+    // Parse a source file and visit its AST, runs on a worker thread
+    private ClassDepsReport analyseSource(Path classSrcFile, SourceLoader.Source source, ParserProvider parserProvider) {
+        long start = this.metrics.start();
+        ParseResult<CompilationUnit> parseResult = source.parse(parserProvider.get());
+        this.metrics.record(AnalysisMetrics.Phase.PARSE, start);
 
-        List<Future<PackageDepsReport>> packageDepsFutures = new ArrayList<>();
-        for (Path packageDir : packageDirs) {
-            packageDepsFutures.add(this.getPackageDependencies(packageDir));
+        if (parseResult == null || !parseResult.isSuccessful() || parseResult.getResult().isEmpty()) {
+            throw new IllegalStateException("Failed to parse " + classSrcFile.getFileName() + ": " +
+                    (parseResult != null ? parseResult.getProblems() : "ParseResult is null"));
         }
-        CompositeFuture.all(new ArrayList<>(packageDepsFutures)).onSuccess(result -> {
-            for (int i = 0; i < result.size(); i++) {
-                PackageDepsReport packageReport = result.resultAt(i);
-                projectReport.addPackageReport(packageReport);
-            }
-            promise.complete(projectReport);
-        }).onFailure(promise::fail);
 
-        return promise.future();
+        CompilationUnit cu = parseResult.getResult().get();
+        String className = cu.getPackageDeclaration()
+                .map(pd -> pd.getName().asString() + ".")
+                .orElse("") + getMainClassName(cu);
+        ClassDepsReport classReport = new ClassDepsReport(className, classSrcFile);
+
+        // Visit the AST to find dependencies
+        start = this.metrics.start();
+        cu.accept(new DependencyVisitor(classReport, className, parserConfigurator,
+                parserProvider.getScope(), this.metrics), null);
+        this.metrics.record(AnalysisMetrics.Phase.VISIT, start);
+
+        return classReport;
     }
 
     private String getMainClassName(CompilationUnit cu) {
@@ -124,46 +322,18 @@ public class DependencyAnalyserLib {
         return mainClass.map(ClassOrInterfaceDeclaration::getNameAsString).orElse("UnknownClass");
     }
 
-    private String inferPackageName(File packageDir) {
-        try {
-            // Search for a Java file in the package directory
-            File[] javaFiles = packageDir.listFiles((dir, name) -> name.endsWith(".java"));
-            if (javaFiles != null && javaFiles.length > 0) {
-                ParseResult<CompilationUnit> parseResult = this.parser.parse(javaFiles[0]);
-                if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
-                    CompilationUnit cu = parseResult.getResult().get();
-                    if (cu.getPackageDeclaration().isPresent()) {
-                        return cu.getPackageDeclaration().get().getNameAsString();
-                    }
-                }
-            }
-        } catch (Exception ignored) {
-        }
-
-        return packageDir.getName();
+    private SourceDiscovery createSourceDiscovery() {
+        return new SourceDiscovery(this.vertx, this::readPackageName);
     }
 
-    private List<Path> findPackageDirectories(Path projectDir) {
-        List<Path> packageDirs = new ArrayList<>();
-
-        this.findPackageDirsRecursive(projectDir.toFile(), packageDirs);
-
-        return packageDirs;
-    }
-
-    private void findPackageDirsRecursive(File dir, List<Path> packageDirs) {
-        // Check if the directory contains Java files
-        File[] javaFiles = dir.listFiles((d, name) -> name.endsWith(".java"));
-        if (javaFiles != null && javaFiles.length > 0) {
-            packageDirs.add(dir.toPath());
+    // Read the package declared by a source file from its header, runs on the discovery worker thread
+    private String readPackageName(Path javaFile) {
+        try {
+            String packageName = this.headerScanner.scan(javaFile).getPackageName();
+            return packageName.isEmpty() ? null : packageName;
+        } catch (IOException ignored) {
         }
 
-        // Explore the subdirectories
-        File[] subDirs = dir.listFiles(File::isDirectory);
-        if (subDirs != null) {
-            for (File subDir : subDirs) {
-                this.findPackageDirsRecursive(subDir, packageDirs);
-            }
-        }
+        return null;
     }
 }
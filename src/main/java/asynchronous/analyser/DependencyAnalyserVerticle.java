@@ -1,8 +1,7 @@
 package asynchronous.analyser;
 
-import asynchronous.report.ClassDepsReport;
-import asynchronous.report.PackageDepsReport;
-import asynchronous.report.ProjectDepsReport;
+import asynchronous.report.*;
+import asynchronous.util.DependencyGraph;
 import io.vertx.core.*;
 
 import java.nio.file.Path;
@@ -16,19 +15,52 @@ public class DependencyAnalyserVerticle extends AbstractVerticle {
 
     @Override
     public void start(Promise<Void> startPromise) {
-        final DependencyAnalyserLib dependencyAnalyser = new DependencyAnalyserLib(this.vertx);
+        final AnalyserOptions options = new AnalyserOptions(config());
+        final DependencyAnalyserLib dependencyAnalyser = new DependencyAnalyserLib(this.vertx, options);
 
         final Future<ClassDepsReport> classReport = dependencyAnalyser.getClassDependencies(CLASS_PATH);
         final Future<PackageDepsReport> packageReport = dependencyAnalyser.getPackageDependencies(PACKAGE_PATH);
-        final Future<ProjectDepsReport> projectReport = dependencyAnalyser.getProjectDependencies(PROJECT_PATH);
+        // The project is analysed once: streamed when "streamProject" is set, class reports are then
+        // consumed one by one and only the totals are kept, otherwise as a whole report
+        final boolean streamed = config().getBoolean("streamProject", false);
+        final Future<ProjectDepsReport> projectReport = streamed
+                ? Future.succeededFuture()
+                : dependencyAnalyser.getProjectDependencies(PROJECT_PATH);
+        final Future<ProjectDepsSummary> projectSummary = streamed
+                ? streamSummary(dependencyAnalyser)
+                : Future.succeededFuture();
 
-        CompositeFuture.all(classReport, packageReport, projectReport)
+        CompositeFuture.all(classReport, packageReport, projectReport, projectSummary)
                 .onSuccess(res -> {
                     System.out.println(classReport.result().toString());
                     System.out.println(packageReport.result().toString());
-                    System.out.println(projectReport.result().toString());
-                    startPromise.complete();
+                    if (streamed) {
+                        System.out.println(projectSummary.result().toString());
+                    } else {
+                        System.out.println(projectReport.result().toString());
+                        System.out.println(DependencyGraph.of(projectReport.result()));
+                    }
+                    dependencyAnalyser.getCacheStats()
+                            .ifPresent(stats -> System.out.println("Result cache: " + stats));
+                    System.out.println("Type resolution: " + dependencyAnalyser.getResolutionStats());
+                    System.out.println(dependencyAnalyser.getMetrics().snapshot());
+                    // Optionally persist the project report, the file extension selects JSON or binary;
+                    // a streamed analysis keeps no report to save
+                    final String reportFile = config().getString("reportFile");
+                    final Future<Void> saved = reportFile != null && !streamed
+                            ? dependencyAnalyser.saveProjectReport(projectReport.result(), Path.of(reportFile))
+                            : Future.succeededFuture();
+                    saved.onFailure(System.err::println)
+                            .eventually(v -> dependencyAnalyser.close())
+                            .onComplete(closed -> startPromise.complete());
                 })
                 .onFailure(System.err::println);
     }
+
+    private static Future<ProjectDepsSummary> streamSummary(DependencyAnalyserLib dependencyAnalyser) {
+        final ClassDepsReportStream projectStream = dependencyAnalyser.streamProjectDependencies(PROJECT_PATH);
+        projectStream.exceptionHandler(System.err::println)
+                .handler(report -> {});
+        return projectStream.summary();
+    }
 }
@@ -1,13 +1,16 @@
 package asynchronous.analyser;
 
-import asynchronous.util.TypeDependency;
+import asynchronous.util.TypeDependency.DependencyType;
+import com.github.javaparser.ast.*;
 import com.github.javaparser.ast.body.*;
 import com.github.javaparser.ast.expr.ObjectCreationExpr;
 import com.github.javaparser.ast.type.*;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.resolution.types.*;
 import asynchronous.report.ClassDepsReport;
-import common.ParserConfigurator;
+import common.*;
+
+import java.util.*;
 
 import static asynchronous.util.TypeDependency.DependencyType.*;
 
@@ -18,11 +21,34 @@ public class DependencyVisitor extends VoidVisitorAdapter<Void> {
     private final ClassDepsReport report;
     private final String sourceClassName;
     private final ParserConfigurator parserConfigurator;
-
-    public DependencyVisitor(ClassDepsReport report, String sourceClassName, ParserConfigurator parserConfigurator) {
+    private final TypeResolutionCache resolutionCache;
+    private final AnalysisMetrics metrics;
+    private final String scope;
+    private TypeResolutionCache.UnitContext unitContext;
+    private ImportQualifier importQualifier;
+
+    /**
+     * @param scope identifies the sources symbols are resolved against, see {@link ParserProvider#getScope()}
+     * @param metrics receives the symbol solver timings, the resolution failures and the unexpected visit errors
+     */
+    public DependencyVisitor(ClassDepsReport report, String sourceClassName,
+                             ParserConfigurator parserConfigurator, String scope, AnalysisMetrics metrics) {
         this.report = report;
         this.sourceClassName = sourceClassName;
         this.parserConfigurator = parserConfigurator;
+        this.resolutionCache = parserConfigurator.getResolutionCache();
+        this.metrics = metrics;
+        this.scope = scope;
+    }
+
+    @Override
+    public void visit(CompilationUnit n, Void arg) {
+        if (this.parserConfigurator.getAnalysisLevel() == AnalysisLevel.IMPORTS_ONLY) {
+            this.importQualifier = new ImportQualifier(n);
+        }
+        this.unitContext = this.resolutionCache.forUnit(this.scope, n);
+
+        super.visit(n, arg);
     }
 
     @Override
@@ -32,13 +58,10 @@ public class DependencyVisitor extends VoidVisitorAdapter<Void> {
             try {
                 String typeName = resolveTypeName(extendedType);
                 if (parserConfigurator.shouldIncludeType(typeName)) {
-                    report.addDependency(new TypeDependency(
-                            sourceClassName, typeName, EXTENDS,
-                            "extends " + extendedType,
-                            extendedType.getBegin().map(pos -> pos.line).orElse(-1)
-                    ));
+                    this.addDependency(typeName, EXTENDS, "extends " + extendedType, extendedType);
                 }
-            } catch (Exception ignored) {
+            } catch (Exception e) {
+                this.metrics.visitFailed();
             }
         }
 
@@ -46,13 +69,10 @@ public class DependencyVisitor extends VoidVisitorAdapter<Void> {
             try {
                 String typeName = resolveTypeName(implementedType);
                 if (parserConfigurator.shouldIncludeType(typeName)) {
-                    report.addDependency(new TypeDependency(
-                            sourceClassName, typeName, IMPLEMENTS,
-                            "implements " + implementedType,
-                            implementedType.getBegin().map(pos -> pos.line).orElse(-1)
-                    ));
+                    this.addDependency(typeName, IMPLEMENTS, "implements " + implementedType, implementedType);
                 }
-            } catch (Exception ignored) {
+            } catch (Exception e) {
+                this.metrics.visitFailed();
             }
         }
 
@@ -68,13 +88,10 @@ public class DependencyVisitor extends VoidVisitorAdapter<Void> {
                 try {
                     String typeName = resolveTypeName(type);
                     if (parserConfigurator.shouldIncludeType(typeName)) {
-                        report.addDependency(new TypeDependency(
-                                sourceClassName, typeName, FIELD,
-                                variable.getType() + " " + variable.getName(),
-                                variable.getBegin().map(pos -> pos.line).orElse(-1)
-                        ));
+                        this.addDependency(typeName, FIELD, variable.getType() + " " + variable.getName(), variable);
                     }
-                } catch (Exception ignored) {
+                } catch (Exception e) {
+                    this.metrics.visitFailed();
                 }
             }
         }
@@ -89,13 +106,10 @@ public class DependencyVisitor extends VoidVisitorAdapter<Void> {
         try {
             String typeName = resolveTypeName(returnType);
             if (parserConfigurator.shouldIncludeType(typeName)) {
-                report.addDependency(new TypeDependency(
-                        sourceClassName, typeName, METHOD_RETURN,
-                        returnType + " " + n.getName() + "()",
-                        returnType.getBegin().map(pos -> pos.line).orElse(-1)
-                ));
+                this.addDependency(typeName, METHOD_RETURN, returnType + " " + n.getName() + "()", returnType);
             }
-        } catch (Exception ignored) {
+        } catch (Exception e) {
+            this.metrics.visitFailed();
         }
 
         // Check parameters
@@ -103,13 +117,10 @@ public class DependencyVisitor extends VoidVisitorAdapter<Void> {
             try {
                 String typeName = resolveTypeName(parameter.getType());
                 if (parserConfigurator.shouldIncludeType(typeName)) {
-                    report.addDependency(new TypeDependency(
-                            sourceClassName, typeName, METHOD_PARAMETER,
-                            parameter.toString(),
-                            parameter.getBegin().map(pos -> pos.line).orElse(-1)
-                    ));
+                    this.addDependency(typeName, METHOD_PARAMETER, parameter.toString(), parameter);
                 }
-            } catch (Exception ignored) {
+            } catch (Exception e) {
+                this.metrics.visitFailed();
             }
         }
 
@@ -122,30 +133,59 @@ public class DependencyVisitor extends VoidVisitorAdapter<Void> {
         try {
             String typeName = resolveTypeName(n.getType());
             if (parserConfigurator.shouldIncludeType(typeName)) {
-                report.addDependency(new TypeDependency(
-                        sourceClassName, typeName, INSTANTIATION,
-                        "new " + n.getType() + "()",
-                        n.getBegin().map(pos -> pos.line).orElse(-1)
-                ));
+                this.addDependency(typeName, INSTANTIATION, "new " + n.getType() + "()", n);
             }
-        } catch (Exception ignored) {
+        } catch (Exception e) {
+            this.metrics.visitFailed();
         }
 
         super.visit(n, arg);
     }
 
+    // Dependency found at the beginning of a node, the preview code is captured now and never read back from the file
+    private void addDependency(String typeName, DependencyType type, String previewCode, Node at) {
+        int line = at.getBegin().map(pos -> pos.line).orElse(-1);
+        this.report.addDependency(this.sourceClassName, typeName, type, previewCode, line);
+    }
+
     private String resolveTypeName(Type type) {
+        if (!type.isClassOrInterfaceType()) {
+            return type.asString();
+        }
+
+        ClassOrInterfaceType classType = type.asClassOrInterfaceType();
+        String name = classType.getNameWithScope();
+        if (this.unitContext.isTypeParameter(name)) {
+            return type.asString();
+        }
+
+        String resolved = this.importQualifier != null
+                ? this.importQualifier.qualify(name)
+                : this.unitContext.resolve(name, () -> this.resolveWithSolver(classType));
+
+        if (resolved == null) {
+            this.metrics.resolutionFailed();
+            this.report.addUnqualifiedTypes(1);
+            return type.asString();
+        }
+        return resolved;
+    }
+
+    // Qualified name through the symbol solver, null when it cannot be resolved
+    private String resolveWithSolver(ClassOrInterfaceType type) {
+        long start = this.metrics.start();
         try {
-            if (type.isClassOrInterfaceType()) {
-                ResolvedType resolvedType = type.resolve();
-                if (resolvedType.isReferenceType()) {
-                    ResolvedReferenceType referenceType = resolvedType.asReferenceType();
-                    return referenceType.getQualifiedName();
-                }
+            ResolvedType resolvedType = type.resolve();
+            if (resolvedType.isReferenceType()) {
+                ResolvedReferenceType referenceType = resolvedType.asReferenceType();
+                return referenceType.getQualifiedName();
             }
         } catch (Exception ignored) {
+            // Counted by the caller, once per name left unqualified
+        } finally {
+            this.metrics.record(AnalysisMetrics.Phase.RESOLVE, start);
         }
 
-        return type.asString();
+        return null;
     }
 }
@@ -0,0 +1,151 @@
+package asynchronous.analyser;
+
+import io.vertx.core.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Discovers the package directories of a source tree.
+ * The tree is walked once on a worker thread, listing every directory a single time,
+ * and each package is handed back on the caller's context as soon as it is found,
+ * so its analysis can start while the rest of the tree is still being walked.
+ * Symbolic links are followed; a directory reached through several paths, or through a link
+ * back to one of its parents, is listed only the first time.
+ */
+public class SourceDiscovery {
+    private final Vertx vertx;
+    private final Function<Path, String> packageNameReader;
+
+    /**
+     * @param packageNameReader reads the package name declared by a source file, may return null
+     */
+    public SourceDiscovery(Vertx vertx, Function<Path, String> packageNameReader) {
+        this.vertx = vertx;
+        this.packageNameReader = packageNameReader;
+    }
+
+    // Walk the tree, the returned future completes after the last package has been emitted
+    public Future<Void> discover(Path root, Handler<PackageSources> packageHandler) {
+        Context context = this.vertx.getOrCreateContext();
+        Promise<Void> promise = Promise.promise();
+
+        this.vertx.executeBlocking(walk -> {
+            try {
+                Deque<Path> pendingDirs = new ArrayDeque<>();
+                Set<Object> visitedDirs = new HashSet<>();
+                pendingDirs.push(root);
+                visitedDirs.add(directoryKey(root, Files.readAttributes(root, BasicFileAttributes.class)));
+                while (!pendingDirs.isEmpty()) {
+                    Path dir = pendingDirs.pop();
+                    PackageSources packageSources;
+                    try {
+                        packageSources = this.listDirectory(dir, pendingDirs, visitedDirs);
+                    } catch (IOException e) {
+                        // Unreadable subdirectories are skipped, an unreadable root fails the walk
+                        if (dir.equals(root)) {
+                            throw e;
+                        }
+                        continue;
+                    }
+                    if (packageSources != null) {
+                        context.runOnContext(v -> packageHandler.handle(packageSources));
+                    }
+                }
+                // Queued after every package, so the handler has seen them all on completion
+                context.runOnContext(v -> promise.complete());
+            } catch (Exception e) {
+                context.runOnContext(v -> promise.fail(e));
+            }
+            walk.complete();
+        }, false);
+
+        return promise.future();
+    }
+
+    // List a single package directory without descending into it
+    public Future<PackageSources> listPackage(Path packageDir) {
+        return this.vertx.executeBlocking(list -> {
+            try {
+                PackageSources packageSources = this.listDirectory(packageDir, new ArrayDeque<>(), new HashSet<>());
+                list.complete(packageSources != null
+                        ? packageSources
+                        : new PackageSources(packageDir, packageDir.getFileName().toString(), List.of()));
+            } catch (IOException e) {
+                list.fail(e);
+            }
+        }, false);
+    }
+
+    // Single pass over a directory: Java files are collected, subdirectories not visited yet queued for the walk
+    private PackageSources listDirectory(Path dir, Deque<Path> pendingDirs, Set<Object> visitedDirs) throws IOException {
+        List<Path> javaFiles = new ArrayList<>();
+        List<Path> subDirs = new ArrayList<>();
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                BasicFileAttributes attributes;
+                try {
+                    // Attributes of the link target, a broken link is skipped
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (attributes.isDirectory() && !visitedDirs.add(directoryKey(entry, attributes))) {
+                        continue;
+                    }
+                } catch (IOException e) {
+                    continue;
+                }
+                if (attributes.isDirectory()) {
+                    subDirs.add(entry);
+                } else if (attributes.isRegularFile() && entry.getFileName().toString().endsWith(".java")) {
+                    javaFiles.add(entry);
+                }
+            }
+        }
+
+        // Keep the natural order when popping from the stack
+        Collections.reverse(subDirs);
+        subDirs.forEach(pendingDirs::push);
+
+        if (javaFiles.isEmpty()) {
+            return null;
+        }
+        String packageName = this.packageNameReader.apply(javaFiles.get(0));
+        return new PackageSources(dir, packageName != null ? packageName : dir.getFileName().toString(), javaFiles);
+    }
+
+    // Identity of a directory whatever the path it is reached by
+    private static Object directoryKey(Path dir, BasicFileAttributes attributes) throws IOException {
+        Object fileKey = attributes.fileKey();
+        return fileKey != null ? fileKey : dir.toRealPath();
+    }
+
+    /**
+     * A package directory together with the Java files it directly contains.
+     */
+    public static class PackageSources {
+        private final Path directory;
+        private final String packageName;
+        private final List<Path> javaFiles;
+
+        public PackageSources(Path directory, String packageName, List<Path> javaFiles) {
+            this.directory = directory;
+            this.packageName = packageName;
+            this.javaFiles = List.copyOf(javaFiles);
+        }
+
+        public Path getDirectory() {
+            return this.directory;
+        }
+
+        public String getPackageName() {
+            return this.packageName;
+        }
+
+        public List<Path> getJavaFiles() {
+            return this.javaFiles;
+        }
+    }
+}
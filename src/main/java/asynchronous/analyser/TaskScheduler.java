@@ -0,0 +1,74 @@
+package asynchronous.analyser;
+
+import io.vertx.core.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs asynchronous tasks with a bounded number in flight.
+ * Tasks beyond the limit wait in a queue and are started, on the context that submitted them,
+ * as soon as a running task completes. It is safe to submit from several contexts.
+ */
+class TaskScheduler {
+    private final Vertx vertx;
+    private final int maxInFlight;
+    private final Deque<Runnable> pendingTasks;
+    private int inFlight;
+
+    TaskScheduler(Vertx vertx, int maxInFlight) {
+        this.vertx = vertx;
+        this.maxInFlight = maxInFlight;
+        this.pendingTasks = new ArrayDeque<>();
+    }
+
+    <T> Future<T> submit(Supplier<Future<T>> task) {
+        Context context = this.vertx.getOrCreateContext();
+        Promise<T> promise = Promise.promise();
+        Runnable start = () -> context.runOnContext(v -> this.run(task, promise));
+
+        synchronized (this) {
+            if (this.inFlight >= this.maxInFlight) {
+                this.pendingTasks.add(start);
+                return promise.future();
+            }
+            this.inFlight++;
+        }
+        this.run(task, promise);
+        return promise.future();
+    }
+
+    synchronized int getQueuedCount() {
+        return this.pendingTasks.size();
+    }
+
+    synchronized int getInFlightCount() {
+        return this.inFlight;
+    }
+
+    private <T> void run(Supplier<Future<T>> task, Promise<T> promise) {
+        Future<T> future;
+        try {
+            future = task.get();
+        } catch (Exception e) {
+            future = Future.failedFuture(e);
+        }
+        future.onComplete(result -> {
+            this.release();
+            promise.handle(result);
+        });
+    }
+
+    // The permit of a completed task goes straight to the next queued one
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = this.pendingTasks.poll();
+            if (next == null) {
+                this.inFlight--;
+                return;
+            }
+        }
+        next.run();
+    }
+}
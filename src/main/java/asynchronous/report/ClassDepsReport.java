@@ -1,20 +1,35 @@
 package asynchronous.report;
 
-import asynchronous.util.TypeDependency;
+import asynchronous.util.*;
 import asynchronous.util.TypeDependency.DependencyType;
 
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Contains the list of types (classes or interfaces) used by a single class or interface.
  * Result of a class-level dependency analysis.
+ * The names and preview code of the dependencies are interned in a table owned by the report.
+ * Once added to a {@link PackageDepsReport} the report is read-only, as the package keeps totals
+ * computed from it.
  */
 public class ClassDepsReport {
     private final String className;
+    private final Path sourceFile;
+    private final NameTable names;
     private final Set<TypeDependency> dependencies;
+    private int unqualifiedTypeCount;
+    private boolean frozen;
 
     public ClassDepsReport(String className) {
+        this(className, null);
+    }
+
+    // The source file is null when unknown
+    public ClassDepsReport(String className, Path sourceFile) {
         this.className = className;
+        this.sourceFile = sourceFile;
+        this.names = new NameTable();
         this.dependencies = new HashSet<>();
     }
 
@@ -22,24 +37,66 @@ public class ClassDepsReport {
         return this.className;
     }
 
+    // File the class was analysed from, shared by all its dependencies
+    public Path getSourceFile() {
+        return this.sourceFile;
+    }
+
     public Set<TypeDependency> getDependencies() {
         return Collections.unmodifiableSet(this.dependencies);
     }
 
-    public void addDependency(TypeDependency dependency) {
-        dependencies.add(dependency);
+    // Add a dependency whose strings are interned in the table of this report
+    public void addDependency(String sourceType, String targetType, DependencyType type, String previewCode, int lineNum) {
+        this.checkNotFrozen();
+        this.dependencies.add(new TypeDependency(this.names, sourceType, targetType, type, previewCode, lineNum));
     }
 
     public int getDependencyCount() {
         return dependencies.size();
     }
 
+    // Type names that could be neither resolved nor qualified from the imports
+    public int getUnqualifiedTypeCount() {
+        return this.unqualifiedTypeCount;
+    }
+
+    public void addUnqualifiedTypes(int count) {
+        this.checkNotFrozen();
+        this.unqualifiedTypeCount += count;
+    }
+
+    // Table the dependencies of this report are interned in, their ids index arrays of its size
+    NameTable getNames() {
+        return this.names;
+    }
+
+    // Called when the report is added to a package, whose totals would go stale if it changed
+    void freeze() {
+        this.frozen = true;
+    }
+
+    private void checkNotFrozen() {
+        if (this.frozen) {
+            throw new IllegalStateException("Class report " + this.className + " already added to a package report");
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("-----------------------CLASS------------------------\n");
-        sb.append("Class Name: ").append(className).append("\n");
-        sb.append("Dependency Count: ").append(this.getDependencyCount()).append("\n");
+        this.appendTo(sb, "");
+        return sb.toString();
+    }
+
+    // Write the report with every line prefixed by the indent, used to nest it in larger reports
+    void appendTo(StringBuilder sb, String indent) {
+        sb.append(indent).append("-----------------------CLASS------------------------\n");
+        sb.append(indent).append("Class Name: ").append(className).append("\n");
+        sb.append(indent).append("Dependency Count: ").append(this.getDependencyCount()).append("\n");
+        if (this.unqualifiedTypeCount > 0) {
+            sb.append(indent).append("Unqualified Types: ").append(this.unqualifiedTypeCount).append("\n");
+        }
 
         // Group by type
         Map<DependencyType, List<TypeDependency>> grouped = new HashMap<>();
@@ -49,15 +106,14 @@ public class ClassDepsReport {
 
         // Print each group
         for (Map.Entry<DependencyType, List<TypeDependency>> entry : grouped.entrySet()) {
-            sb.append("\t").append(entry.getKey()).append(":\n");
+            sb.append(indent).append("\t").append(entry.getKey()).append(":\n");
             for (TypeDependency dep : entry.getValue()) {
-                sb.append("\t").append(dep.getTargetType())
+                sb.append(indent).append("\t").append(dep.getTargetType())
                         .append(" (code: ").append(dep.getSourceCode())
                         .append(" at line: ").append(dep.getLineNumber())
                         .append(")\n");
             }
         }
-        sb.append("---------------------END-CLASS----------------------\n");
-        return sb.toString();
+        sb.append(indent).append("---------------------END-CLASS----------------------\n");
     }
 }
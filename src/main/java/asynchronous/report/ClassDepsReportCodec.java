@@ -0,0 +1,90 @@
+package asynchronous.report;
+
+import asynchronous.util.TypeDependency;
+import asynchronous.util.TypeDependency.DependencyType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Binary encoding of a {@link ClassDepsReport}, used to persist and transfer class reports.
+ * Strings are UTF-8 bytes prefixed by their length, -1 for null, so they are not limited to the
+ * 64KB of modified UTF-8; the source file is written once for the whole report.
+ */
+public class ClassDepsReportCodec {
+    private static final int FORMAT_VERSION = 6;
+
+    public static byte[] encode(ClassDepsReport report) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, report.getClassName());
+            out.writeInt(report.getUnqualifiedTypeCount());
+            Path sourceFile = report.getSourceFile();
+            writeString(out, sourceFile != null ? sourceFile.toString() : null);
+            out.writeInt(report.getDependencyCount());
+            for (TypeDependency dependency : report.getDependencies()) {
+                writeString(out, dependency.getSourceType());
+                writeString(out, dependency.getTargetType());
+                out.writeByte(dependency.getType().ordinal());
+                writeString(out, dependency.getSourceCode());
+                out.writeInt(dependency.getLineNumber());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ClassDepsReport decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported class report format version " + version);
+            }
+            String className = readString(in);
+            int unqualifiedTypes = in.readInt();
+            String sourceFile = readString(in);
+            ClassDepsReport report = new ClassDepsReport(className, sourceFile != null ? Path.of(sourceFile) : null);
+            report.addUnqualifiedTypes(unqualifiedTypes);
+            int count = in.readInt();
+            // The report interns the names and previews, repeated ones are stored once
+            for (int i = 0; i < count; i++) {
+                String sourceType = readString(in);
+                String targetType = readString(in);
+                DependencyType type = DependencyType.values()[in.readUnsignedByte()];
+                String previewCode = readString(in);
+                int lineNum = in.readInt();
+                report.addDependency(sourceType, targetType, type, previewCode, lineNum);
+            }
+            return report;
+        } catch (IOException | ArrayIndexOutOfBoundsException | InvalidPathException e) {
+            throw new IllegalArgumentException("Corrupted class report", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        // The whole report is in memory, a length past its end can only come from corrupted data
+        if (length > in.available()) {
+            throw new EOFException("String of " + length + " bytes past the end of the report");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
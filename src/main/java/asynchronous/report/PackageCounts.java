@@ -0,0 +1,92 @@
+package asynchronous.report;
+
+import asynchronous.util.*;
+
+import java.util.*;
+
+/**
+ * Dependency counts of a package towards every package it uses, a row of the package-to-package
+ * matrix. Packages are interned to dense ids in a table owned by the row, so it lives and dies
+ * with its report, and the counts are a primitive int array indexed by package id.
+ */
+class PackageCounts {
+    private final NameTable packageNames;
+    private int[] counts;
+    private int nonZero;
+
+    PackageCounts() {
+        this.packageNames = new NameTable();
+        this.counts = new int[8];
+    }
+
+    // Segments before the first capitalized one, so nested types belong to the package of their outer type
+    static String packageOf(String typeName) {
+        int start = 0;
+        while (start < typeName.length()) {
+            int end = typeName.indexOf('.', start);
+            if (end < 0) {
+                break;
+            }
+            if (Character.isUpperCase(typeName.charAt(start))) {
+                return start == 0 ? "" : typeName.substring(0, start - 1);
+            }
+            start = end + 1;
+        }
+        int lastDot = typeName.lastIndexOf('.');
+        return lastDot < 0 ? "" : typeName.substring(0, lastDot);
+    }
+
+    // Count the dependencies of a class report, with a negative sign when it is removed
+    void addAll(ClassDepsReport classReport, int sign) {
+        // Package id + 1 of every type id of the report, 0 until computed, so each type name is parsed once
+        int[] packageOfType = new int[classReport.getNames().size()];
+        for (TypeDependency dependency : classReport.getDependencies()) {
+            int typeId = dependency.getTargetTypeId();
+            int packageId = packageOfType[typeId] - 1;
+            if (packageId < 0) {
+                packageId = this.idOf(packageOf(dependency.getTargetType()));
+                packageOfType[typeId] = packageId + 1;
+            }
+            this.add(packageId, sign);
+        }
+    }
+
+    // Count towards the given package, 0 when it is not used; queries never register new packages
+    int get(String packageName) {
+        int packageId = this.packageNames.find(packageName);
+        return packageId != NameTable.NO_ID ? this.counts[packageId] : 0;
+    }
+
+    // Number of packages with a non zero count
+    int size() {
+        return this.nonZero;
+    }
+
+    Map<String, Integer> toMap() {
+        Map<String, Integer> map = new HashMap<>();
+        for (int packageId = 0; packageId < this.packageNames.size(); packageId++) {
+            if (this.counts[packageId] != 0) {
+                map.put(this.packageNames.nameOf(packageId), this.counts[packageId]);
+            }
+        }
+        return map;
+    }
+
+    private void add(int packageId, int delta) {
+        int before = this.counts[packageId];
+        this.counts[packageId] = before + delta;
+        if (before == 0 && this.counts[packageId] != 0) {
+            this.nonZero++;
+        } else if (before != 0 && this.counts[packageId] == 0) {
+            this.nonZero--;
+        }
+    }
+
+    private int idOf(String packageName) {
+        int packageId = this.packageNames.idOf(packageName);
+        if (packageId == this.counts.length) {
+            this.counts = Arrays.copyOf(this.counts, packageId * 2);
+        }
+        return packageId;
+    }
+}
@@ -5,14 +5,20 @@ import java.util.*;
 /**
  * Contains the list of types used by all classes and interfaces in a package.
  * Result of a package-level dependency analysis.
+ * Totals and the dependency counts towards other packages are updated as class reports are added,
+ * which makes the class reports read-only so the totals cannot go stale.
  */
 public class PackageDepsReport {
     private final String packageName;
     private final Map<String, ClassDepsReport> classReports;
+    private final PackageCounts packageCounts;
+    private int totalDependencyCount;
+    private int unqualifiedTypeCount;
 
     public PackageDepsReport(String packageName) {
         this.packageName = packageName;
         this.classReports = new HashMap<>();
+        this.packageCounts = new PackageCounts();
     }
 
     public String getPackageName() {
@@ -24,7 +30,18 @@ public class PackageDepsReport {
     }
 
     public void addClassReport(ClassDepsReport classReport) {
-        classReports.put(classReport.getClassName(), classReport);
+        classReport.freeze();
+        ClassDepsReport replaced = classReports.put(classReport.getClassName(), classReport);
+        if (replaced != null) {
+            this.count(replaced, -1);
+        }
+        this.count(classReport, 1);
+    }
+
+    private void count(ClassDepsReport classReport, int sign) {
+        this.totalDependencyCount += sign * classReport.getDependencyCount();
+        this.unqualifiedTypeCount += sign * classReport.getUnqualifiedTypeCount();
+        this.packageCounts.addAll(classReport, sign);
     }
 
     public int getClassCount() {
@@ -32,23 +49,46 @@ public class PackageDepsReport {
     }
 
     public int getTotalDependencyCount() {
-        return classReports.values().stream()
-                .mapToInt(ClassDepsReport::getDependencyCount)
-                .sum();
+        return this.totalDependencyCount;
+    }
+
+    public int getUnqualifiedTypeCount() {
+        return this.unqualifiedTypeCount;
+    }
+
+    // Dependencies of the classes of this package on the types of the given package, this one included
+    public int getDependencyCount(String targetPackage) {
+        return this.packageCounts.get(targetPackage);
+    }
+
+    // Dependency count by target package, the types of classes in the default package are under ""
+    public Map<String, Integer> getPackageDependencies() {
+        return this.packageCounts.toMap();
+    }
+
+    // Number of packages used by the classes of this package
+    public int getUsedPackageCount() {
+        return this.packageCounts.size();
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("-----------------------PACKAGE------------------------\n");
-        sb.append("Package Name: ").append(packageName).append("\n");
-        sb.append("Class Count: ").append(this.getClassCount()).append("\n");
-        sb.append("Total Dependencies: ").append(this.getTotalDependencyCount()).append("\n");
-        sb.append("Class Reports: \n");
+        this.appendTo(sb, "");
+        return sb.toString();
+    }
+
+    // Nested reports are written straight into the builder with a deeper indent
+    void appendTo(StringBuilder sb, String indent) {
+        sb.append(indent).append("-----------------------PACKAGE------------------------\n");
+        sb.append(indent).append("Package Name: ").append(packageName).append("\n");
+        sb.append(indent).append("Class Count: ").append(this.getClassCount()).append("\n");
+        sb.append(indent).append("Total Dependencies: ").append(this.getTotalDependencyCount()).append("\n");
+        sb.append(indent).append("Used Packages: ").append(this.getUsedPackageCount()).append("\n");
+        sb.append(indent).append("Class Reports: \n");
         for (ClassDepsReport classReport : classReports.values()) {
-            sb.append("\t").append(classReport.toString().replace("\n", "\n\t")).append("\n");
+            classReport.appendTo(sb, indent + "\t");
         }
-        sb.append("---------------------END-PACKAGE----------------------\n");
-        return sb.toString();
+        sb.append(indent).append("---------------------END-PACKAGE----------------------\n");
     }
 }
@@ -5,6 +5,8 @@ import java.util.*;
 /**
  * Contains the list of types used across all packages in a Java project.
  * Result of a project-level dependency analysis.
+ * Totals and the package-to-package dependency matrix are read from the counts kept by each
+ * package report, so they cost O(packages) and are correct while packages are still being filled.
  */
 public class ProjectDepsReport {
     private final String projectName;
@@ -32,15 +34,63 @@ public class ProjectDepsReport {
     }
 
     public int getClassCount() {
-        return packageReports.values().stream()
-                .mapToInt(PackageDepsReport::getClassCount)
-                .sum();
+        int classCount = 0;
+        for (PackageDepsReport packageReport : packageReports.values()) {
+            classCount += packageReport.getClassCount();
+        }
+        return classCount;
     }
 
     public int getTotalDependencyCount() {
-        return packageReports.values().stream()
-                .mapToInt(PackageDepsReport::getTotalDependencyCount)
-                .sum();
+        int dependencyCount = 0;
+        for (PackageDepsReport packageReport : packageReports.values()) {
+            dependencyCount += packageReport.getTotalDependencyCount();
+        }
+        return dependencyCount;
+    }
+
+    public int getUnqualifiedTypeCount() {
+        int unqualifiedTypeCount = 0;
+        for (PackageDepsReport packageReport : packageReports.values()) {
+            unqualifiedTypeCount += packageReport.getUnqualifiedTypeCount();
+        }
+        return unqualifiedTypeCount;
+    }
+
+    // Cell of the package matrix: dependencies of the classes of one package on the types of another
+    public int getPackageDependencyCount(String sourcePackage, String targetPackage) {
+        PackageDepsReport packageReport = packageReports.get(sourcePackage);
+        return packageReport != null ? packageReport.getDependencyCount(targetPackage) : 0;
+    }
+
+    // Row of the package matrix, target packages may be outside the project
+    public Map<String, Integer> getPackageDependencies(String sourcePackage) {
+        PackageDepsReport packageReport = packageReports.get(sourcePackage);
+        return packageReport != null ? packageReport.getPackageDependencies() : Map.of();
+    }
+
+    // Column of the package matrix, limited to the analysed packages
+    public Map<String, Integer> getPackageDependents(String targetPackage) {
+        Map<String, Integer> dependents = new HashMap<>();
+        for (PackageDepsReport packageReport : packageReports.values()) {
+            int count = packageReport.getDependencyCount(targetPackage);
+            if (count != 0) {
+                dependents.put(packageReport.getPackageName(), count);
+            }
+        }
+        return dependents;
+    }
+
+    // Number of non zero cells of the package matrix, dependencies within a package excluded
+    public int getPackageEdgeCount() {
+        int cells = 0;
+        for (PackageDepsReport packageReport : packageReports.values()) {
+            cells += packageReport.getUsedPackageCount();
+            if (packageReport.getDependencyCount(packageReport.getPackageName()) != 0) {
+                cells--;
+            }
+        }
+        return cells;
     }
 
     @Override
@@ -51,9 +101,12 @@ public class ProjectDepsReport {
         sb.append("Package Count: ").append(this.getPackageCount()).append("\n");
         sb.append("Class Count: ").append(this.getClassCount()).append("\n");
         sb.append("Total Dependencies: ").append(this.getTotalDependencyCount()).append("\n");
+        sb.append("Unqualified Types: ").append(this.getUnqualifiedTypeCount()).append("\n");
+        sb.append("Package Dependencies: ").append(this.getPackageEdgeCount()).append("\n");
         sb.append("Package Reports: \n");
+        // Nested reports are written straight into the builder instead of being copied and re-indented
         for (PackageDepsReport packageReport : packageReports.values()) {
-            sb.append("\t").append(packageReport.toString().replace("\n", "\n\t")).append("\n");
+            packageReport.appendTo(sb, "\t");
         }
         sb.append("---------------------END-PROJECT----------------------\n");
         return sb.toString();
@@ -0,0 +1,60 @@
+package asynchronous.report;
+
+/**
+ * Totals of a streamed project analysis.
+ * Emitted once, after the last class report of the project.
+ */
+public class ProjectDepsSummary {
+    private final String projectName;
+    private final int packageCount;
+    private final int classCount;
+    private final long totalDependencyCount;
+    private final int failedClassCount;
+    private final long unqualifiedTypeCount;
+
+    public ProjectDepsSummary(String projectName, int packageCount, int classCount,
+                              long totalDependencyCount, int failedClassCount, long unqualifiedTypeCount) {
+        this.projectName = projectName;
+        this.packageCount = packageCount;
+        this.classCount = classCount;
+        this.totalDependencyCount = totalDependencyCount;
+        this.failedClassCount = failedClassCount;
+        this.unqualifiedTypeCount = unqualifiedTypeCount;
+    }
+
+    public String getProjectName() {
+        return this.projectName;
+    }
+
+    public int getPackageCount() {
+        return this.packageCount;
+    }
+
+    public int getClassCount() {
+        return this.classCount;
+    }
+
+    public long getTotalDependencyCount() {
+        return this.totalDependencyCount;
+    }
+
+    public int getFailedClassCount() {
+        return this.failedClassCount;
+    }
+
+    public long getUnqualifiedTypeCount() {
+        return this.unqualifiedTypeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "-----------------------SUMMARY------------------------\n" +
+                "Project Name: " + projectName + "\n" +
+                "Package Count: " + packageCount + "\n" +
+                "Class Count: " + classCount + "\n" +
+                "Total Dependencies: " + totalDependencyCount + "\n" +
+                "Failed Classes: " + failedClassCount + "\n" +
+                "Unqualified Types: " + unqualifiedTypeCount + "\n" +
+                "---------------------END-SUMMARY----------------------\n";
+    }
+}
@@ -0,0 +1,147 @@
+package asynchronous.report;
+
+import asynchronous.util.TypeDependency.DependencyType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.*;
+
+import static asynchronous.report.ReportBinaryWriter.*;
+
+/**
+ * Reader of the format written by {@link ReportBinaryWriter}.
+ * Class reports are decoded one record at a time, so a saved project can be consumed
+ * without loading it whole, or rebuilt into a {@link ProjectDepsReport}.
+ */
+public class ReportBinaryReader implements Closeable {
+    private static final DependencyType[] DEPENDENCY_TYPES = DependencyType.values();
+
+    private final DataInputStream in;
+    private final List<String> strings;
+    private final String projectName;
+    private boolean ended;
+
+    public ReportBinaryReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.strings = new ArrayList<>();
+        if (this.in.readInt() != MAGIC) {
+            throw new IOException("Not a dependency report");
+        }
+        int version = this.readVarint();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported dependency report version " + version);
+        }
+        this.projectName = this.readString();
+    }
+
+    public String getProjectName() {
+        return this.projectName;
+    }
+
+    /**
+     * Read the next class report and hand it to the consumer with its package name.
+     *
+     * @return false when the end of the report has been reached
+     */
+    public boolean readClass(BiConsumer<String, ClassDepsReport> consumer) throws IOException {
+        return this.readRecords(packageName -> {
+        }, consumer);
+    }
+
+    // Read up to the next class record, the packages met on the way are handed to the package consumer
+    private boolean readRecords(Consumer<String> packageConsumer,
+                                BiConsumer<String, ClassDepsReport> classConsumer) throws IOException {
+        while (!this.ended) {
+            int record = this.readVarint();
+            switch (record) {
+                case END_RECORD -> this.ended = true;
+                case PACKAGE_RECORD -> packageConsumer.accept(this.readString());
+                case CLASS_RECORD -> {
+                    this.readClassRecord(classConsumer);
+                    return true;
+                }
+                default -> throw new IOException("Corrupted dependency report, unknown record " + record);
+            }
+        }
+        return false;
+    }
+
+    private void readClassRecord(BiConsumer<String, ClassDepsReport> consumer) throws IOException {
+        String packageName = this.readString();
+        String className = this.readString();
+        String sourceFile = this.readString();
+        ClassDepsReport classReport = new ClassDepsReport(className, sourceFile != null ? Path.of(sourceFile) : null);
+        classReport.addUnqualifiedTypes(this.readVarint());
+        int count = this.readVarint();
+        for (int i = 0; i < count; i++) {
+            String sourceType = this.readString();
+            String targetType = this.readString();
+            int type = this.in.readUnsignedByte();
+            if (type >= DEPENDENCY_TYPES.length) {
+                throw new IOException("Corrupted dependency report, unknown dependency type " + type);
+            }
+            String previewCode = this.readString();
+            int lineNum = this.readVarint();
+            classReport.addDependency(sourceType, targetType, DEPENDENCY_TYPES[type], previewCode,
+                    lineNum > 0 ? lineNum : -1);
+        }
+        consumer.accept(packageName, classReport);
+    }
+
+    // Rebuild the whole project from the remaining records, packages without classes included
+    public ProjectDepsReport readProject() throws IOException {
+        ProjectDepsReport projectReport = new ProjectDepsReport(this.projectName);
+        Map<String, PackageDepsReport> packageReports = new HashMap<>();
+        Function<String, PackageDepsReport> packageReportOf = packageName ->
+                packageReports.computeIfAbsent(packageName, name -> {
+                    PackageDepsReport packageReport = new PackageDepsReport(name);
+                    projectReport.addPackageReport(packageReport);
+                    return packageReport;
+                });
+        while (this.readRecords(packageReportOf::apply,
+                (packageName, classReport) -> packageReportOf.apply(packageName).addClassReport(classReport))) {
+            // Every record has been added by the consumers
+        }
+        return projectReport;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    private String readString() throws IOException {
+        int reference = this.readVarint();
+        if (reference == NULL_STRING) {
+            return null;
+        }
+        if (reference == NEW_STRING || reference == INLINE_STRING) {
+            byte[] bytes = new byte[this.readVarint()];
+            this.in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            if (reference == NEW_STRING) {
+                this.strings.add(value);
+            }
+            return value;
+        }
+        int id = reference - FIRST_STRING_ID;
+        if (id >= this.strings.size()) {
+            throw new IOException("Corrupted dependency report, unknown string " + id);
+        }
+        return this.strings.get(id);
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = this.in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupted dependency report, varint too long");
+    }
+}
@@ -0,0 +1,143 @@
+package asynchronous.report;
+
+import asynchronous.util.TypeDependency;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary writer for dependency reports, read back by {@link ReportBinaryReader}.
+ * Numbers are varint encoded and every distinct name is written once: the first occurrence
+ * carries the text, later ones only its index in the string table. The table is built while
+ * writing, so class reports can be appended one by one as they are produced. Strings that do not
+ * repeat across classes, source files and preview code, are written inline and never enter the
+ * table, and the table stops growing at MAX_STRING_TABLE_SIZE, later new names are written inline.
+ * <p>
+ * Layout: magic, version, project name, then one record per package (package name) followed by
+ * one record per class of the package (package name, class name, source file, unqualified count,
+ * dependencies), and an end marker written on {@link #close()} unless a write failed, so a
+ * partial report is never taken for a complete one.
+ */
+public class ReportBinaryWriter implements Closeable {
+    static final int MAGIC = 0x44455053;
+    static final int FORMAT_VERSION = 4;
+    static final int CLASS_RECORD = 1;
+    static final int PACKAGE_RECORD = 2;
+    static final int END_RECORD = 0;
+    // String references: no string, string text follows and enters the table, string text follows
+    // and does not, or table index plus FIRST_STRING_ID
+    static final int NULL_STRING = 0;
+    static final int NEW_STRING = 1;
+    static final int INLINE_STRING = 2;
+    static final int FIRST_STRING_ID = 3;
+    static final int MAX_STRING_TABLE_SIZE = 1 << 16;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> stringIds;
+    private boolean failed;
+
+    public ReportBinaryWriter(OutputStream out, String projectName) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.stringIds = new HashMap<>();
+        this.out.writeInt(MAGIC);
+        this.writeVarint(FORMAT_VERSION);
+        this.writeString(projectName);
+    }
+
+    public void writeProject(ProjectDepsReport projectReport) throws IOException {
+        for (PackageDepsReport packageReport : projectReport.getPackageReports().values()) {
+            this.writePackage(packageReport);
+        }
+    }
+
+    // The package record is written even without classes, so empty packages survive a round trip
+    public void writePackage(PackageDepsReport packageReport) throws IOException {
+        try {
+            this.writeVarint(PACKAGE_RECORD);
+            this.writeString(packageReport.getPackageName());
+        } catch (IOException e) {
+            this.failed = true;
+            throw e;
+        }
+        for (ClassDepsReport classReport : packageReport.getClassReports().values()) {
+            this.writeClass(packageReport.getPackageName(), classReport);
+        }
+    }
+
+    public void writeClass(String packageName, ClassDepsReport classReport) throws IOException {
+        try {
+            this.writeVarint(CLASS_RECORD);
+            this.writeString(packageName);
+            this.writeString(classReport.getClassName());
+            this.writeInlineString(classReport.getSourceFile() != null ? classReport.getSourceFile().toString() : null);
+            this.writeVarint(classReport.getUnqualifiedTypeCount());
+            this.writeVarint(classReport.getDependencyCount());
+            for (TypeDependency dependency : classReport.getDependencies()) {
+                this.writeString(dependency.getSourceType());
+                this.writeString(dependency.getTargetType());
+                this.out.writeByte(dependency.getType().ordinal());
+                this.writeInlineString(dependency.getSourceCode());
+                this.writeVarint(dependency.hasLineNumber() ? dependency.getLineNumber() : 0);
+            }
+        } catch (IOException e) {
+            this.failed = true;
+            throw e;
+        }
+    }
+
+    // The end marker is only written when every record was, a reader fails on a truncated report
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!this.failed) {
+                this.writeVarint(END_RECORD);
+            }
+        } finally {
+            this.out.close();
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            this.writeVarint(NULL_STRING);
+            return;
+        }
+        Integer id = this.stringIds.get(value);
+        if (id != null) {
+            this.writeVarint(id + FIRST_STRING_ID);
+            return;
+        }
+        if (this.stringIds.size() == MAX_STRING_TABLE_SIZE) {
+            this.writeInlineString(value);
+            return;
+        }
+        this.stringIds.put(value, this.stringIds.size());
+        this.writeText(NEW_STRING, value);
+    }
+
+    // Strings that rarely repeat are not worth a table entry
+    private void writeInlineString(String value) throws IOException {
+        if (value == null) {
+            this.writeVarint(NULL_STRING);
+            return;
+        }
+        this.writeText(INLINE_STRING, value);
+    }
+
+    private void writeText(int reference, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.writeVarint(reference);
+        this.writeVarint(bytes.length);
+        this.out.write(bytes);
+    }
+
+    // Unsigned LEB128, seven bits per byte with the high bit set on all but the last
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            this.out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.out.writeByte(value);
+    }
+}
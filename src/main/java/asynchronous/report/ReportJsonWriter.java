@@ -0,0 +1,149 @@
+package asynchronous.report;
+
+import asynchronous.util.TypeDependency;
+
+import java.io.*;
+
+/**
+ * Streaming JSON writer for dependency reports.
+ * Reports are written element by element straight to the underlying writer, so a project of any
+ * size is serialized without building its text in memory. A project is written either at once with
+ * {@link #writeProject(ProjectDepsReport)} or incrementally:
+ * <pre>
+ * writer.beginProject(name);
+ * writer.beginPackage(packageName);
+ * writer.writeClass(classReport);
+ * writer.endPackage();
+ * writer.endProject();
+ * </pre>
+ */
+public class ReportJsonWriter implements Closeable {
+    private final Writer out;
+    // Whether the array currently being written already has an element
+    private boolean hasElement;
+
+    public ReportJsonWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+    }
+
+    public void writeProject(ProjectDepsReport projectReport) throws IOException {
+        this.beginProject(projectReport.getProjectName());
+        for (PackageDepsReport packageReport : projectReport.getPackageReports().values()) {
+            this.writePackage(packageReport);
+        }
+        this.endProject();
+    }
+
+    public void writePackage(PackageDepsReport packageReport) throws IOException {
+        this.beginPackage(packageReport.getPackageName());
+        for (ClassDepsReport classReport : packageReport.getClassReports().values()) {
+            this.writeClass(classReport);
+        }
+        this.endPackage();
+    }
+
+    public void beginProject(String projectName) throws IOException {
+        this.out.write("{\"project\":");
+        this.writeString(projectName);
+        this.out.write(",\"packages\":[");
+        this.hasElement = false;
+    }
+
+    public void endProject() throws IOException {
+        this.out.write("]}\n");
+        this.hasElement = true;
+        this.out.flush();
+    }
+
+    public void beginPackage(String packageName) throws IOException {
+        this.separator();
+        this.out.write("{\"package\":");
+        this.writeString(packageName);
+        this.out.write(",\"classes\":[");
+        this.hasElement = false;
+    }
+
+    public void endPackage() throws IOException {
+        this.out.write("]}");
+        this.hasElement = true;
+    }
+
+    public void writeClass(ClassDepsReport classReport) throws IOException {
+        this.separator();
+        this.out.write("{\"class\":");
+        this.writeString(classReport.getClassName());
+        if (classReport.getSourceFile() != null) {
+            this.out.write(",\"file\":");
+            this.writeString(classReport.getSourceFile().toString());
+        }
+        this.out.write(",\"unqualifiedTypes\":");
+        this.out.write(Integer.toString(classReport.getUnqualifiedTypeCount()));
+        this.out.write(",\"dependencies\":[");
+        boolean first = true;
+        for (TypeDependency dependency : classReport.getDependencies()) {
+            if (!first) {
+                this.out.write(',');
+            }
+            first = false;
+            this.writeDependency(dependency);
+        }
+        this.out.write("]}");
+        this.hasElement = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+    private void writeDependency(TypeDependency dependency) throws IOException {
+        this.out.write("{\"source\":");
+        this.writeString(dependency.getSourceType());
+        this.out.write(",\"target\":");
+        this.writeString(dependency.getTargetType());
+        this.out.write(",\"type\":\"");
+        this.out.write(dependency.getType().name());
+        this.out.write('"');
+        if (dependency.hasLineNumber()) {
+            this.out.write(",\"line\":");
+            this.out.write(Integer.toString(dependency.getLineNumber()));
+        }
+        if (dependency.getSourceCode() != null) {
+            this.out.write(",\"code\":");
+            this.writeString(dependency.getSourceCode());
+        }
+        this.out.write('}');
+    }
+
+    private void separator() throws IOException {
+        if (this.hasElement) {
+            this.out.write(',');
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            this.out.write("null");
+            return;
+        }
+        this.out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> this.out.write("\\\"");
+                case '\\' -> this.out.write("\\\\");
+                case '\n' -> this.out.write("\\n");
+                case '\r' -> this.out.write("\\r");
+                case '\t' -> this.out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        this.out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        this.out.write(c);
+                    }
+                }
+            }
+        }
+        this.out.write('"');
+    }
+}
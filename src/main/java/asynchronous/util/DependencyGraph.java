@@ -0,0 +1,251 @@
+package asynchronous.util;
+
+import asynchronous.report.*;
+import asynchronous.util.TypeDependency.DependencyType;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable type dependency graph in compressed sparse row form.
+ * Types are numbered from 0 to {@link #getNodeCount()} - 1; the dependencies of node {@code n} are
+ * {@code targets[offsets[n]..offsets[n + 1])}, sorted by id. Parallel dependencies between the same two
+ * types are merged into one edge whose kinds are kept as a bit set of {@link DependencyType} ordinals.
+ * The reverse adjacency is stored the same way, so fan-in and dependents are as cheap as fan-out.
+ */
+public class DependencyGraph {
+    private static final DependencyType[] DEPENDENCY_TYPES = DependencyType.values();
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final byte[] kinds;
+    private final int[] reverseOffsets;
+    private final int[] sources;
+    private final byte[] reverseKinds;
+
+    private DependencyGraph(String[] names, Map<String, Integer> ids, int[] offsets, int[] targets, byte[] kinds) {
+        this.names = names;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.kinds = kinds;
+
+        // Counting sort of the forward edges by target gives the reverse rows already sorted by source
+        int nodeCount = names.length;
+        this.reverseOffsets = new int[nodeCount + 1];
+        for (int target : targets) {
+            this.reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            this.reverseOffsets[i + 1] += this.reverseOffsets[i];
+        }
+        this.sources = new int[targets.length];
+        this.reverseKinds = new byte[targets.length];
+        int[] next = Arrays.copyOf(this.reverseOffsets, nodeCount);
+        for (int source = 0; source < nodeCount; source++) {
+            for (int e = offsets[source]; e < offsets[source + 1]; e++) {
+                int slot = next[targets[e]]++;
+                this.sources[slot] = source;
+                this.reverseKinds[slot] = kinds[e];
+            }
+        }
+    }
+
+    public static DependencyGraph of(ProjectDepsReport projectReport) {
+        List<ClassDepsReport> classReports = new ArrayList<>();
+        for (PackageDepsReport packageReport : projectReport.getPackageReports().values()) {
+            classReports.addAll(packageReport.getClassReports().values());
+        }
+        return of(classReports);
+    }
+
+    public static DependencyGraph of(Collection<ClassDepsReport> classReports) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int dependencyCount = 0;
+        for (ClassDepsReport classReport : classReports) {
+            nodeId(classReport.getClassName(), ids, names);
+            dependencyCount += classReport.getDependencyCount();
+        }
+
+        // Each dependency is packed as source | target | kind so a primitive sort groups parallel edges
+        long[] edges = new long[dependencyCount];
+        int edgeCount = 0;
+        for (ClassDepsReport classReport : classReports) {
+            for (TypeDependency dependency : classReport.getDependencies()) {
+                long source = nodeId(dependency.getSourceType(), ids, names);
+                long target = nodeId(dependency.getTargetType(), ids, names);
+                edges[edgeCount++] = (source << 35) | (target << 3) | dependency.getType().ordinal();
+            }
+        }
+        Arrays.sort(edges, 0, edgeCount);
+
+        int nodeCount = names.size();
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = new int[edgeCount];
+        byte[] kinds = new byte[edgeCount];
+        int unique = 0;
+        long previous = -1;
+        for (int i = 0; i < edgeCount; i++) {
+            long pair = edges[i] >>> 3;
+            int kind = 1 << (int) (edges[i] & 7);
+            if (pair == previous) {
+                kinds[unique - 1] |= (byte) kind;
+                continue;
+            }
+            previous = pair;
+            offsets[(int) (pair >>> 32) + 1]++;
+            targets[unique] = (int) (pair & 0xFFFFFFFFL);
+            kinds[unique] = (byte) kind;
+            unique++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        return new DependencyGraph(names.toArray(new String[0]), ids, offsets,
+                Arrays.copyOf(targets, unique), Arrays.copyOf(kinds, unique));
+    }
+
+    private static int nodeId(String name, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    public int getNodeCount() {
+        return this.names.length;
+    }
+
+    public int getEdgeCount() {
+        return this.targets.length;
+    }
+
+    // Id of a type, -1 when the type is not in the graph
+    public int idOf(String typeName) {
+        return this.ids.getOrDefault(typeName, -1);
+    }
+
+    public String nameOf(int node) {
+        return this.names[node];
+    }
+
+    public int getFanOut(int node) {
+        return this.offsets[node + 1] - this.offsets[node];
+    }
+
+    public int getFanIn(int node) {
+        return this.reverseOffsets[node + 1] - this.reverseOffsets[node];
+    }
+
+    public int[] dependenciesOf(int node) {
+        return Arrays.copyOfRange(this.targets, this.offsets[node], this.offsets[node + 1]);
+    }
+
+    public int[] dependentsOf(int node) {
+        return Arrays.copyOfRange(this.sources, this.reverseOffsets[node], this.reverseOffsets[node + 1]);
+    }
+
+    public void forEachDependency(int node, IntConsumer action) {
+        for (int e = this.offsets[node]; e < this.offsets[node + 1]; e++) {
+            action.accept(this.targets[e]);
+        }
+    }
+
+    public void forEachDependent(int node, IntConsumer action) {
+        for (int e = this.reverseOffsets[node]; e < this.reverseOffsets[node + 1]; e++) {
+            action.accept(this.sources[e]);
+        }
+    }
+
+    public boolean hasEdge(int source, int target) {
+        return this.edgeIndex(source, target) >= 0;
+    }
+
+    // Kinds of the dependencies from source to target, empty when there is no edge
+    public Set<DependencyType> kindsOf(int source, int target) {
+        Set<DependencyType> result = EnumSet.noneOf(DependencyType.class);
+        int e = this.edgeIndex(source, target);
+        if (e >= 0) {
+            for (DependencyType type : DEPENDENCY_TYPES) {
+                if ((this.kinds[e] & (1 << type.ordinal())) != 0) {
+                    result.add(type);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Types reachable from the node, the node itself only when it is part of a cycle
+    public BitSet transitiveDependenciesOf(int node) {
+        return this.reachable(node, this.offsets, this.targets);
+    }
+
+    // Types from which the node is reachable
+    public BitSet transitiveDependentsOf(int node) {
+        return this.reachable(node, this.reverseOffsets, this.sources);
+    }
+
+    public boolean reaches(int source, int target) {
+        if (source == target) {
+            return true;
+        }
+        BitSet visited = new BitSet(this.names.length);
+        int[] queue = new int[this.names.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        visited.set(source);
+        while (head < tail) {
+            int current = queue[head++];
+            for (int e = this.offsets[current]; e < this.offsets[current + 1]; e++) {
+                int next = this.targets[e];
+                if (next == target) {
+                    return true;
+                }
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int edgeIndex(int source, int target) {
+        int e = Arrays.binarySearch(this.targets, this.offsets[source], this.offsets[source + 1], target);
+        return e >= 0 ? e : -1;
+    }
+
+    // Breadth first search over one direction of the adjacency
+    private BitSet reachable(int start, int[] rowOffsets, int[] columns) {
+        BitSet visited = new BitSet(this.names.length);
+        // The start node is queued again when it lies on a cycle
+        int[] queue = new int[this.names.length + 1];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int e = rowOffsets[current]; e < rowOffsets[current + 1]; e++) {
+                int next = columns[e];
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return visited;
+    }
+
+    @Override
+    public String toString() {
+        return "DependencyGraph{types=" + this.getNodeCount() + ", edges=" + this.getEdgeCount() + "}";
+    }
+}
@@ -0,0 +1,49 @@
+package asynchronous.util;
+
+import java.util.*;
+
+/**
+ * Dictionary encoding of strings to dense int ids.
+ * Every distinct string is stored once and referenced by its id, which is stable for the
+ * lifetime of the table. Tables are owned by a report and live as long as it does, so
+ * nothing is interned for the lifetime of the process. Not thread safe, like the reports.
+ */
+public class NameTable {
+    public static final int NO_ID = -1;
+
+    private final Map<String, Integer> ids;
+    private String[] names;
+
+    public NameTable() {
+        this.ids = new HashMap<>();
+        this.names = new String[8];
+    }
+
+    public int idOf(String name) {
+        Integer id = this.ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = this.ids.size();
+        if (newId == this.names.length) {
+            this.names = Arrays.copyOf(this.names, newId * 2);
+        }
+        this.names[newId] = name;
+        this.ids.put(name, newId);
+        return newId;
+    }
+
+    // Id of a name already in the table, NO_ID otherwise; never registers the name
+    public int find(String name) {
+        Integer id = this.ids.get(name);
+        return id != null ? id : NO_ID;
+    }
+
+    public String nameOf(int id) {
+        return this.names[id];
+    }
+
+    public int size() {
+        return this.ids.size();
+    }
+}
@@ -3,7 +3,10 @@ package asynchronous.util;
 import java.util.*;
 
 /**
- * Represents a single dependencies between classes
+ * Represents a single dependencies between classes.
+ * Type names and preview code are dictionary encoded in the {@link NameTable} of the report the
+ * dependency belongs to, so every distinct string is stored once per report, and the dependency
+ * kind is packed with the line number: an edge is a handful of ints.
  */
 public class TypeDependency {
 
@@ -17,40 +20,59 @@ public class TypeDependency {
         METHOD_RETURN
     }
 
-    private final String sourceType;
-    private final String targetType;
-    private final DependencyType type;
-    private final String previewCode;
-    private final int lineNum;
-
-    public TypeDependency(String sourceType, String targetType, DependencyType type, String previewCode, int lineNum) {
-        this.sourceType = sourceType;
-        this.targetType = targetType;
-        this.type = type;
-        this.previewCode = previewCode;
-        this.lineNum = lineNum;
+    private static final DependencyType[] DEPENDENCY_TYPES = DependencyType.values();
+    private static final int TYPE_BITS = 3;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    private final NameTable names;
+    private final int sourceTypeId;
+    private final int targetTypeId;
+    // Line number in the high bits, DependencyType ordinal in the low bits
+    private final int typeAndLine;
+    private final int previewId;
+
+    /**
+     * @param names       table of the report the dependency belongs to, the strings are interned into it
+     * @param previewCode code the dependency was found in, null when unknown
+     * @param lineNum     line of the dependency, -1 when unknown
+     */
+    public TypeDependency(NameTable names, String sourceType, String targetType, DependencyType type,
+                          String previewCode, int lineNum) {
+        this.names = names;
+        this.sourceTypeId = names.idOf(sourceType);
+        this.targetTypeId = names.idOf(targetType);
+        this.typeAndLine = (Math.max(lineNum, 0) << TYPE_BITS) | type.ordinal();
+        this.previewId = previewCode != null ? names.idOf(previewCode) : NameTable.NO_ID;
     }
 
     public String getSourceType() {
-        return this.sourceType;
+        return this.names.nameOf(this.sourceTypeId);
     }
 
     public String getTargetType() {
-        return this.targetType;
+        return this.names.nameOf(this.targetTypeId);
+    }
+
+    // Id of the target type in the table of the report, to index per-type data without hashing names
+    public int getTargetTypeId() {
+        return this.targetTypeId;
     }
 
     public DependencyType getType() {
-        return this.type;
+        return DEPENDENCY_TYPES[this.typeAndLine & TYPE_MASK];
     }
 
-    public String getSourceCode() {return this.previewCode;}
+    public String getSourceCode() {
+        return this.previewId != NameTable.NO_ID ? this.names.nameOf(this.previewId) : null;
+    }
 
     public int getLineNumber() {
-        return this.lineNum;
+        int line = this.typeAndLine >>> TYPE_BITS;
+        return line > 0 ? line : -1;
     }
 
     public boolean hasLineNumber() {
-        return this.lineNum > 0;
+        return this.getLineNumber() > 0;
     }
 
     @Override
@@ -58,21 +80,39 @@ public class TypeDependency {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TypeDependency that = (TypeDependency) o;
-        return Objects.equals(sourceType, that.sourceType) &&
-                Objects.equals(targetType, that.targetType) &&
-                type == that.type && lineNum == that.lineNum &&
-                Objects.equals(previewCode, that.previewCode);
+        if (typeAndLine != that.typeAndLine) return false;
+        if (names == that.names) {
+            return sourceTypeId == that.sourceTypeId &&
+                    targetTypeId == that.targetTypeId &&
+                    previewId == that.previewId;
+        }
+        // Dependencies of different reports are compared by their strings
+        return getSourceType().equals(that.getSourceType()) &&
+                getTargetType().equals(that.getTargetType()) &&
+                Objects.equals(getSourceCode(), that.getSourceCode());
+    }
+
+    @Override
+    public int hashCode() {
+        // From the strings, so it agrees with equals across tables; String caches its hash
+        int result = getSourceType().hashCode();
+        result = 31 * result + getTargetType().hashCode();
+        result = 31 * result + typeAndLine;
+        result = 31 * result + Objects.hashCode(getSourceCode());
+        return result;
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder(this.sourceType).append(" -> ").append(targetType).append(" (").append(type);
+        StringBuilder sb = new StringBuilder(this.getSourceType()).append(" -> ").append(this.getTargetType())
+                .append(" (").append(this.getType());
 
-        if (this.previewCode != null && hasLineNumber()) {
-            sb.append(": ").append(this.previewCode);
-            sb.append(" at line: ").append(this.lineNum);
+        String previewCode = this.getSourceCode();
+        if (previewCode != null && hasLineNumber()) {
+            sb.append(": ").append(previewCode);
+            sb.append(" at line: ").append(this.getLineNumber());
         }
         sb.append(")");
         return sb.toString();
     }
-}
\ No newline at end of file
+}
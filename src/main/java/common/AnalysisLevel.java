@@ -0,0 +1,11 @@
+package common;
+
+/**
+ * How thoroughly type names are qualified during an analysis.
+ */
+public enum AnalysisLevel {
+    // Names are qualified from import declarations and the same-package rule, no symbol solver is built
+    IMPORTS_ONLY,
+    // Names are resolved through the symbol solver against the project sources and the classpath
+    FULL_RESOLUTION
+}
@@ -0,0 +1,278 @@
+package common;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+import java.util.function.IntSupplier;
+
+/**
+ * Timings and counters of an analysis, safe to update from any thread.
+ * Every phase has a latency histogram with power of two buckets; files, resolution failures, visit
+ * errors and registered queue depths are tracked alongside. {@link #snapshot()} can be taken while the
+ * analysis runs, for a live view, or at the end for a summary.
+ */
+public class AnalysisMetrics {
+
+    public enum Phase {
+        READ,
+        PARSE,
+        // Symbol solver calls, a part of VISIT
+        RESOLVE,
+        VISIT,
+        AGGREGATE,
+        UI_UPDATE
+    }
+
+    private final EnumMap<Phase, LatencyHistogram> histograms;
+    private final AtomicLong filesAnalysed;
+    private final AtomicLong filesFailed;
+    private final AtomicLong resolutionFailures;
+    private final AtomicLong visitErrors;
+    private final Map<String, IntSupplier> queues;
+    private volatile long startNanos;
+
+    public AnalysisMetrics() {
+        this.histograms = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            this.histograms.put(phase, new LatencyHistogram());
+        }
+        this.filesAnalysed = new AtomicLong();
+        this.filesFailed = new AtomicLong();
+        this.resolutionFailures = new AtomicLong();
+        this.visitErrors = new AtomicLong();
+        this.queues = new ConcurrentHashMap<>();
+        this.startNanos = System.nanoTime();
+    }
+
+    // Start time for a later call to record
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(Phase phase, long startNanos) {
+        this.histograms.get(phase).record(System.nanoTime() - startNanos);
+    }
+
+    public void fileAnalysed() {
+        this.filesAnalysed.incrementAndGet();
+    }
+
+    public void fileFailed() {
+        this.filesFailed.incrementAndGet();
+    }
+
+    // A type name left unqualified, counted once per occurrence whether or not the solver was called
+    public void resolutionFailed() {
+        this.resolutionFailures.incrementAndGet();
+    }
+
+    // An unexpected error while visiting a declaration, the dependency is skipped
+    public void visitFailed() {
+        this.visitErrors.incrementAndGet();
+    }
+
+    // Depth of a queue, read each time a snapshot is taken
+    public void registerQueue(String name, IntSupplier depth) {
+        this.queues.put(name, depth);
+    }
+
+    // Clear every value, throughput is measured from this call
+    public void reset() {
+        this.histograms.values().forEach(LatencyHistogram::reset);
+        this.filesAnalysed.set(0);
+        this.filesFailed.set(0);
+        this.resolutionFailures.set(0);
+        this.visitErrors.set(0);
+        this.startNanos = System.nanoTime();
+    }
+
+    public Snapshot snapshot() {
+        EnumMap<Phase, PhaseStats> phases = new EnumMap<>(Phase.class);
+        this.histograms.forEach((phase, histogram) -> phases.put(phase, histogram.stats()));
+        Map<String, Integer> queueDepths = new TreeMap<>();
+        this.queues.forEach((name, depth) -> queueDepths.put(name, depth.getAsInt()));
+        return new Snapshot(phases, this.filesAnalysed.get(), this.filesFailed.get(),
+                this.resolutionFailures.get(), this.visitErrors.get(), queueDepths, System.nanoTime() - this.startNanos);
+    }
+
+    // Bucket i counts the durations whose highest set bit is i, in nanoseconds
+    private static class LatencyHistogram {
+        private static final int BUCKETS = 64;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long nanos) {
+            nanos = Math.max(nanos, 0);
+            this.buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(nanos | 1));
+            this.count.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.buckets.set(i, 0);
+            }
+            this.count.reset();
+            this.totalNanos.reset();
+            this.maxNanos.reset();
+        }
+
+        private PhaseStats stats() {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = this.buckets.get(i);
+                total += counts[i];
+            }
+            return new PhaseStats(this.count.sum(), this.totalNanos.sum(), this.maxNanos.get(),
+                    percentile(counts, total, 0.5), percentile(counts, total, 0.99));
+        }
+
+        // Upper bound of the bucket holding the percentile
+        private static long percentile(long[] counts, long total, double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Latency of a phase, percentiles are accurate within a factor of two.
+     */
+    public static class PhaseStats {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+
+        public PhaseStats(long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getTotalNanos() {
+            return this.totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return this.maxNanos;
+        }
+
+        public long getP50Nanos() {
+            return this.p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return this.p99Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, total=%.1fms, mean=%.3fms, p50<=%.3fms, p99<=%.3fms, max=%.3fms",
+                    this.count, this.totalNanos / 1e6, this.count > 0 ? this.totalNanos / 1e6 / this.count : 0.0,
+                    this.p50Nanos / 1e6, this.p99Nanos / 1e6, this.maxNanos / 1e6);
+        }
+    }
+
+    /**
+     * Values of the metrics at a point in time.
+     */
+    public static class Snapshot {
+        private final EnumMap<Phase, PhaseStats> phases;
+        private final long filesAnalysed;
+        private final long filesFailed;
+        private final long resolutionFailures;
+        private final long visitErrors;
+        private final Map<String, Integer> queueDepths;
+        private final long elapsedNanos;
+
+        public Snapshot(EnumMap<Phase, PhaseStats> phases, long filesAnalysed, long filesFailed,
+                        long resolutionFailures, long visitErrors, Map<String, Integer> queueDepths,
+                        long elapsedNanos) {
+            this.phases = phases;
+            this.filesAnalysed = filesAnalysed;
+            this.filesFailed = filesFailed;
+            this.resolutionFailures = resolutionFailures;
+            this.visitErrors = visitErrors;
+            this.queueDepths = queueDepths;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public PhaseStats getPhase(Phase phase) {
+            return this.phases.get(phase);
+        }
+
+        public long getFilesAnalysed() {
+            return this.filesAnalysed;
+        }
+
+        public long getFilesFailed() {
+            return this.filesFailed;
+        }
+
+        public long getResolutionFailures() {
+            return this.resolutionFailures;
+        }
+
+        public long getVisitErrors() {
+            return this.visitErrors;
+        }
+
+        public Map<String, Integer> getQueueDepths() {
+            return Collections.unmodifiableMap(this.queueDepths);
+        }
+
+        public double getFilesPerSecond() {
+            return this.elapsedNanos > 0 ? this.filesAnalysed * 1e9 / this.elapsedNanos : 0;
+        }
+
+        // One line, for live progress
+        public String toShortString() {
+            return String.format("%d files (%.1f/s), %d failed, %d resolution failures, queues %s",
+                    this.filesAnalysed, this.getFilesPerSecond(), this.filesFailed,
+                    this.resolutionFailures, this.queueDepths);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("-----------------------METRICS------------------------\n");
+            sb.append("Elapsed: ").append(this.elapsedNanos / 1_000_000).append(" ms\n");
+            sb.append("Files Analysed: ").append(this.filesAnalysed)
+                    .append(String.format(" (%.1f files/s)", this.getFilesPerSecond())).append("\n");
+            sb.append("Files Failed: ").append(this.filesFailed).append("\n");
+            sb.append("Resolution Failures: ").append(this.resolutionFailures).append("\n");
+            sb.append("Visit Errors: ").append(this.visitErrors).append("\n");
+            for (Map.Entry<Phase, PhaseStats> phase : this.phases.entrySet()) {
+                if (phase.getValue().getCount() > 0) {
+                    sb.append(phase.getKey()).append(": ").append(phase.getValue()).append("\n");
+                }
+            }
+            if (!this.queueDepths.isEmpty()) {
+                sb.append("Queue Depths: ").append(this.queueDepths).append("\n");
+            }
+            sb.append("---------------------END-METRICS----------------------\n");
+            return sb.toString();
+        }
+    }
+}
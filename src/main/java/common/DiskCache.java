@@ -0,0 +1,253 @@
+package common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.*;
+
+/**
+ * Persistent cache of analysis results, one file per entry.
+ * Entries are keyed by a hash of the source content, of its path and of the analyser configuration,
+ * so a changed, moved or renamed file or a changed configuration simply misses the cache.
+ * The cache is bounded both in entries and in bytes and evicts the least recently used entries first.
+ * It is safe to use from several threads.
+ */
+public class DiskCache {
+    private static final String ENTRY_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Long> entrySizes;
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private DiskCache(Path directory, long maxBytes, int maxEntries) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Cache in the given directory, created when missing, with the entries already in it.
+     *
+     * @throws IOException when the directory cannot be created or listed, the caller decides
+     *                     whether to run without a cache
+     */
+    public static DiskCache open(Path directory, long maxBytes, int maxEntries) throws IOException {
+        DiskCache cache = new DiskCache(directory, maxBytes, maxEntries);
+        try {
+            Files.createDirectories(directory);
+            cache.loadIndex();
+        } catch (IOException e) {
+            throw new IOException("Cannot open cache directory: " + e.getMessage(), e);
+        }
+        return cache;
+    }
+
+    // Hash of the configuration version and the content, used as cache key
+    public static String key(String version, byte[] content) {
+        return key(version, ByteBuffer.wrap(content));
+    }
+
+    // Same key as for the equivalent byte array, hashed straight from a possibly direct or mapped buffer
+    public static String key(String version, ByteBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(version.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(content.duplicate());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<byte[]> get(String key) {
+        synchronized (this) {
+            if (this.entrySizes.get(key) == null) {
+                this.misses.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+
+        try {
+            Path entry = this.entryPath(key);
+            byte[] value = Files.readAllBytes(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            this.hits.incrementAndGet();
+            return Optional.of(value);
+        } catch (IOException e) {
+            // Entry removed behind our back, forget it
+            this.remove(key);
+            this.misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, byte[] value) {
+        if (value.length > this.maxBytes) {
+            return;
+        }
+
+        try {
+            // Write aside and move, so readers never see a partial entry
+            Path temp = Files.createTempFile(this.directory, key, TEMP_SUFFIX);
+            Files.write(temp, value);
+            Files.move(temp, this.entryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = this.entrySizes.put(key, (long) value.length);
+            this.totalBytes += value.length - (previous != null ? previous : 0);
+
+            Iterator<Map.Entry<String, Long>> eldest = this.entrySizes.entrySet().iterator();
+            while ((this.totalBytes > this.maxBytes || this.entrySizes.size() > this.maxEntries) && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                this.totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+
+        for (String evictedKey : evicted) {
+            this.deleteEntry(evictedKey);
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    // Drop every entry, e.g. after a change the content hash cannot see
+    public void invalidateAll() {
+        List<String> keys;
+        synchronized (this) {
+            keys = new ArrayList<>(this.entrySizes.keySet());
+            this.entrySizes.clear();
+            this.totalBytes = 0;
+        }
+        keys.forEach(this::deleteEntry);
+    }
+
+    public CacheStats getStats() {
+        synchronized (this) {
+            return new CacheStats(this.hits.get(), this.misses.get(), this.evictions.get(),
+                    this.entrySizes.size(), this.totalBytes);
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = this.entrySizes.remove(key);
+        if (size != null) {
+            this.totalBytes -= size;
+        }
+    }
+
+    private void deleteEntry(String key) {
+        try {
+            Files.deleteIfExists(this.entryPath(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Path entryPath(String key) {
+        return this.directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    // Rebuild the index from the directory, oldest entries first
+    private void loadIndex() throws IOException {
+        List<Path> entries;
+        List<Path> temps;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            Map<Boolean, List<Path>> byKind = files
+                    .filter(p -> p.getFileName().toString().endsWith(ENTRY_SUFFIX)
+                            || p.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .collect(Collectors.partitioningBy(p -> p.getFileName().toString().endsWith(ENTRY_SUFFIX)));
+            entries = byKind.get(true);
+            temps = byKind.get(false);
+        }
+        // Left by writes interrupted before their move, e.g. by a crash; a put running in another
+        // process at the same time only loses its entry
+        for (Path temp : temps) {
+            Files.deleteIfExists(temp);
+        }
+        entries.sort(Comparator.comparing(this::lastModified));
+        for (Path entry : entries) {
+            String name = entry.getFileName().toString();
+            long size = Files.size(entry);
+            this.entrySizes.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), size);
+            this.totalBytes += size;
+        }
+    }
+
+    private FileTime lastModified(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     */
+    public static class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int entryCount;
+        private final long totalBytes;
+
+        public CacheStats(long hits, long misses, long evictions, int entryCount, long totalBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entryCount = entryCount;
+            this.totalBytes = totalBytes;
+        }
+
+        public long getHits() {
+            return this.hits;
+        }
+
+        public long getMisses() {
+            return this.misses;
+        }
+
+        public long getEvictions() {
+            return this.evictions;
+        }
+
+        public int getEntryCount() {
+            return this.entryCount;
+        }
+
+        public long getTotalBytes() {
+            return this.totalBytes;
+        }
+
+        public double getHitRate() {
+            long lookups = this.hits + this.misses;
+            return lookups == 0 ? 0 : (double) this.hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d (hit rate %.1f%%), evictions=%d, entries=%d, size=%d bytes",
+                    this.hits, this.misses, this.getHitRate() * 100, this.evictions, this.entryCount, this.totalBytes);
+        }
+    }
+}
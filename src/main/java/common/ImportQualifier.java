@@ -0,0 +1,115 @@
+package common;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Qualifies type names of a compilation unit using only its declarations, without a symbol solver.
+ * A name is qualified, in order, by a single-type import, by a type declared in the unit,
+ * by java.lang, or by the same-package rule when the unit has no on-demand imports.
+ * Names that could come from an on-demand import stay unqualified.
+ */
+public class ImportQualifier {
+    private final String packagePrefix;
+    private final Map<String, String> singleTypeImports;
+    // Simple name of every type declared in the unit to its name qualified through the enclosing types
+    private final Map<String, String> declaredTypes;
+    private final boolean hasOnDemandImports;
+
+    public ImportQualifier(CompilationUnit cu) {
+        this.packagePrefix = cu.getPackageDeclaration()
+                .map(pd -> pd.getNameAsString() + ".")
+                .orElse("");
+        this.singleTypeImports = new HashMap<>();
+        this.declaredTypes = new HashMap<>();
+
+        boolean onDemand = false;
+        for (ImportDeclaration importDeclaration : cu.getImports()) {
+            if (importDeclaration.isAsterisk()) {
+                // Static on-demand imports only bring members, not types
+                onDemand |= !importDeclaration.isStatic();
+            } else if (!importDeclaration.isStatic()) {
+                String name = importDeclaration.getNameAsString();
+                this.singleTypeImports.put(name.substring(name.lastIndexOf('.') + 1), name);
+            }
+        }
+        this.hasOnDemandImports = onDemand;
+        // Outer types come first, so they win over nested types of the same simple name
+        for (TypeDeclaration<?> type : cu.findAll(TypeDeclaration.class)) {
+            // Local types have no qualified name, they only are in scope in their block
+            this.declaredTypes.putIfAbsent(type.getNameAsString(),
+                    type.getFullyQualifiedName().orElse(this.packagePrefix + type.getNameAsString()));
+        }
+    }
+
+    /**
+     * Qualify a name as written in the source, possibly with a scope (e.g. Map.Entry).
+     *
+     * @return the qualified name, or null when it cannot be determined from the declarations
+     */
+    public String qualify(String nameWithScope) {
+        int firstDot = nameWithScope.indexOf('.');
+        String first = firstDot < 0 ? nameWithScope : nameWithScope.substring(0, firstDot);
+        String rest = firstDot < 0 ? "" : nameWithScope.substring(firstDot);
+
+        String imported = this.singleTypeImports.get(first);
+        if (imported != null) {
+            return imported + rest;
+        }
+        String declared = this.declaredTypes.get(first);
+        if (declared != null) {
+            return declared + rest;
+        }
+        if (JavaLangTypes.NAMES.contains(first)) {
+            return "java.lang." + nameWithScope;
+        }
+        if (firstDot > 0 && Character.isLowerCase(first.charAt(0))) {
+            // Already qualified by its package
+            return nameWithScope;
+        }
+        if (!this.hasOnDemandImports) {
+            return this.packagePrefix + nameWithScope;
+        }
+        return null;
+    }
+
+    /**
+     * Simple names of the public top-level types of java.lang, listed once from the runtime image
+     * on first use, so names that are not in java.lang are never probed nor remembered.
+     */
+    private static class JavaLangTypes {
+        private static final Set<String> NAMES = listNames();
+
+        private static Set<String> listNames() {
+            Set<String> names = new HashSet<>();
+            Path javaLang = FileSystems.getFileSystem(URI.create("jrt:/")).getPath("/modules/java.base/java/lang");
+            try (Stream<Path> files = Files.list(javaLang)) {
+                files.map(file -> file.getFileName().toString())
+                        .filter(file -> file.endsWith(".class") && file.indexOf('$') < 0 && !file.equals("package-info.class"))
+                        .map(file -> file.substring(0, file.length() - ".class".length()))
+                        .filter(JavaLangTypes::isPublic)
+                        .forEach(names::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot list the java.lang types", e);
+            }
+            return Set.copyOf(names);
+        }
+
+        private static boolean isPublic(String simpleName) {
+            try {
+                return Modifier.isPublic(Class.forName("java.lang." + simpleName, false,
+                        ClassLoader.getPlatformClassLoader()).getModifiers());
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+    }
+}
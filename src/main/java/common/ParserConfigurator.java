@@ -6,24 +6,117 @@ import com.github.javaparser.symbolsolver.resolution.typesolvers.*;
 
 import java.io.File;
 import java.util.*;
+import java.util.stream.Collectors;
 
 public class ParserConfigurator {
-    private final JavaParser parser;
-    private final Set<String> excludedPackages = Set.of(
-            "java.lang", "java.util", "java.io", "java.math",
-            "java.time", "java.text", "java.nio", "java.net",
-            "javafx", "org.graphstream", "com.github.javaparser"
-    );
+    public static final int DEFAULT_MAX_CACHED_SOURCE_ROOTS = 8;
+    // Parsed files kept by each source-folder type solver, enough for the files a class usually references
+    public static final long DEFAULT_TYPE_SOLVER_CACHE_SIZE = 1000;
+    // The JavaParserTypeSolver keeps every parsed file when no limit is given
+    public static final long UNBOUNDED_TYPE_SOLVER_CACHE = -1;
+
+    private final AnalysisLevel analysisLevel;
+    private final long typeSolverCacheSize;
+    private final ParserProvider parserProvider;
+    private final TypeResolutionCache resolutionCache;
+    private final LinkedHashMap<String, ParserProvider> sourceRootProviders;
+    private volatile TypeFilter typeFilter = TypeFilter.DEFAULT;
 
     public ParserConfigurator() {
-        this.parser = createSimpleJavaParser();
+        this(AnalysisLevel.FULL_RESOLUTION);
     }
 
-    public JavaParser getParser() {
-        return parser;
+    public ParserConfigurator(AnalysisLevel analysisLevel) {
+        this(analysisLevel, DEFAULT_MAX_CACHED_SOURCE_ROOTS, DEFAULT_TYPE_SOLVER_CACHE_SIZE);
+    }
+
+    /**
+     * @param maxCachedSourceRoots number of source roots whose warm type solvers are kept between runs
+     * @param typeSolverCacheSize  maximum number of parsed files kept by each source-folder type solver
+     */
+    public ParserConfigurator(AnalysisLevel analysisLevel, int maxCachedSourceRoots, long typeSolverCacheSize) {
+        this.analysisLevel = analysisLevel;
+        this.typeSolverCacheSize = typeSolverCacheSize;
+        this.parserProvider = new ParserProvider("", this::createSimpleJavaParser);
+        this.resolutionCache = new TypeResolutionCache();
+        this.sourceRootProviders = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParserProvider> eldest) {
+                if (size() <= maxCachedSourceRoots) {
+                    return false;
+                }
+                eldest.getValue().invalidate();
+                return true;
+            }
+        };
+    }
+
+    public AnalysisLevel getAnalysisLevel() {
+        return this.analysisLevel;
+    }
+
+    public TypeFilter getTypeFilter() {
+        return this.typeFilter;
+    }
+
+    // Filter applied by shouldIncludeType, part of the configuration key
+    public void setTypeFilter(TypeFilter typeFilter) {
+        this.typeFilter = Objects.requireNonNull(typeFilter);
+    }
+
+    // Resolution cache shared by every parser provider of this configurator
+    public TypeResolutionCache getResolutionCache() {
+        return this.resolutionCache;
+    }
+
+    // Provider of parsers without project sources, safe to use from any thread
+    public ParserProvider getParserProvider() {
+        return this.parserProvider;
+    }
+
+    /**
+     * Provider of parsers resolving symbols against the given source folders.
+     * Providers are kept per set of folders, so repeated analyses of the same sources reuse
+     * the type solvers already warmed up by previous runs.
+     */
+    public synchronized ParserProvider getParserProvider(List<File> sourceDirs) {
+        List<File> dirs = List.copyOf(sourceDirs);
+        String scope = scopeOf(dirs);
+        return this.sourceRootProviders.computeIfAbsent(scope,
+                key -> new ParserProvider(key, () -> this.createParserWithResolvers(dirs)));
+    }
+
+    // Drop the warm type solvers of the given folders, e.g. after their sources changed
+    public synchronized void invalidate(List<File> sourceDirs) {
+        ParserProvider removed = this.sourceRootProviders.remove(scopeOf(sourceDirs));
+        if (removed != null) {
+            removed.invalidate();
+        }
+        this.resolutionCache.clear();
+    }
+
+    public synchronized void invalidateAll() {
+        this.sourceRootProviders.values().forEach(ParserProvider::invalidate);
+        this.sourceRootProviders.clear();
+        this.resolutionCache.clear();
+    }
+
+    private static String scopeOf(List<File> sourceDirs) {
+        return sourceDirs.stream()
+                .map(File::getAbsolutePath)
+                .sorted()
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    // Identifies the settings that affect analysis results, part of the result cache keys
+    public String getConfigurationKey() {
+        return "level=" + this.analysisLevel + ";filter=" + this.typeFilter;
     }
 
     public JavaParser createSimpleJavaParser() {
+        if (this.analysisLevel == AnalysisLevel.IMPORTS_ONLY) {
+            return new JavaParser();
+        }
         JavaSymbolSolver symbolSolver =
                 new JavaSymbolSolver(new CombinedTypeSolver(new ReflectionTypeSolver(false)));
         JavaParser parser = new JavaParser();
@@ -32,13 +125,21 @@ public class ParserConfigurator {
     }
 
     public JavaParser createParserWithResolvers(List<File> sourceDirs) {
+        if (this.analysisLevel == AnalysisLevel.IMPORTS_ONLY) {
+            return new JavaParser();
+        }
         CombinedTypeSolver typeSolver = new CombinedTypeSolver();
         typeSolver.add(new ReflectionTypeSolver(false));
         typeSolver.add(new ClassLoaderTypeSolver(ClassLoader.getSystemClassLoader()));
 
+        // Source files loaded by the solver only need their declarations
+        ParserConfiguration solverConfiguration = new ParserConfiguration()
+                .setStoreTokens(false)
+                .setAttributeComments(false);
+
         for (File dir : sourceDirs) {
             if (dir.exists() && dir.isDirectory()) {
-                typeSolver.add(new JavaParserTypeSolver(dir));
+                typeSolver.add(new JavaParserTypeSolver(dir.toPath(), solverConfiguration, this.typeSolverCacheSize));
             }
         }
 
@@ -49,30 +150,8 @@ public class ParserConfigurator {
         return new JavaParser(configuration);
     }
 
-    // Exclude void and primitive types
+    // Exclude void, primitive and array types, and the types rejected by the filter
     public boolean shouldIncludeType(String typeName) {
-        if (typeName == null
-                || typeName.isEmpty()
-                || typeName.equals("void")
-                || isPrimitiveType(typeName)
-                || isArrayType(typeName)) {
-            return false;
-        }
-
-        for (String excludedPackage : this.excludedPackages) {
-            if (typeName.startsWith(excludedPackage)) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    private boolean isPrimitiveType(String typeName) {
-        return Set.of("byte", "short", "int", "long", "float", "double", "boolean", "char").contains(typeName);
-    }
-
-    private boolean isArrayType(String typeName) {
-        return typeName.endsWith("[]");
+        return this.typeFilter.test(typeName);
     }
 }
@@ -0,0 +1,68 @@
+package common;
+
+import com.github.javaparser.JavaParser;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Provides a JavaParser for the calling thread.
+ * JavaParser and its symbol solver are not thread safe, so every thread lazily
+ * gets its own instance built from the same configuration.
+ * Invalidating the provider drops the parsers of every thread at once, threads still
+ * using it get a new parser on their next call.
+ */
+public class ParserProvider {
+    private final String scope;
+    private final Supplier<JavaParser> parserFactory;
+    private final ThreadLocal<ThreadParser> parsers;
+    // Parser slot of every live thread, dropped with their thread
+    private final Set<ThreadParser> threadParsers;
+    private volatile int generation;
+
+    /**
+     * @param scope identifies the sources the parsers resolve symbols against
+     */
+    public ParserProvider(String scope, Supplier<JavaParser> parserFactory) {
+        this.scope = scope;
+        this.parserFactory = parserFactory;
+        this.threadParsers = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        this.parsers = ThreadLocal.withInitial(() -> {
+            ThreadParser threadParser = new ThreadParser();
+            this.threadParsers.add(threadParser);
+            return threadParser;
+        });
+    }
+
+    public String getScope() {
+        return this.scope;
+    }
+
+    public JavaParser get() {
+        ThreadParser threadParser = this.parsers.get();
+        int generation = this.generation;
+        JavaParser parser = threadParser.parser;
+        if (parser == null || threadParser.generation != generation) {
+            parser = this.parserFactory.get();
+            threadParser.parser = parser;
+            threadParser.generation = generation;
+        }
+        return parser;
+    }
+
+    // Release the parsers, and their type solvers, of every thread
+    public synchronized void invalidate() {
+        this.generation++;
+        synchronized (this.threadParsers) {
+            for (ThreadParser threadParser : this.threadParsers) {
+                threadParser.parser = null;
+            }
+        }
+    }
+
+    private static class ThreadParser {
+        // Written by the invalidating thread as well as the owning one
+        private volatile JavaParser parser;
+        private int generation;
+    }
+}
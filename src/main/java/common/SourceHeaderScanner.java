@@ -0,0 +1,272 @@
+package common;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Lightweight lexical scanner for the header of a Java source file.
+ * Only the first few KB of the file are read: comments, annotations and imports are skipped
+ * to find the package declaration and the name of the first top-level type, without building an AST.
+ */
+public class SourceHeaderScanner {
+    public static final int DEFAULT_MAX_BYTES = 8 * 1024;
+
+    private final int maxBytes;
+
+    public SourceHeaderScanner() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public SourceHeaderScanner(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public SourceHeader scan(Path javaFile) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(javaFile)) {
+            head = in.readNBytes(this.maxBytes);
+        }
+        return this.scan(new String(head, StandardCharsets.UTF_8));
+    }
+
+    public SourceHeader scan(CharSequence source) {
+        return new Lexer(source).scanHeader();
+    }
+
+    /**
+     * Package and top-level type declared by a source file.
+     */
+    public static class SourceHeader {
+        private final String packageName;
+        private final String typeName;
+
+        public SourceHeader(String packageName, String typeName) {
+            this.packageName = packageName;
+            this.typeName = typeName;
+        }
+
+        // Empty for the default package
+        public String getPackageName() {
+            return this.packageName;
+        }
+
+        // Null when no type declaration was found in the scanned header
+        public String getTypeName() {
+            return this.typeName;
+        }
+
+        public boolean hasTypeName() {
+            return this.typeName != null;
+        }
+
+        public String getQualifiedTypeName() {
+            if (this.typeName == null) {
+                return null;
+            }
+            return this.packageName.isEmpty() ? this.typeName : this.packageName + "." + this.typeName;
+        }
+    }
+
+    private static class Lexer {
+        // Byte order mark some editors write at the start of UTF-8 files, decoded as U+FEFF
+        private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+        private final CharSequence source;
+        private int pos;
+
+        Lexer(CharSequence source) {
+            this.source = source;
+            this.pos = !source.isEmpty() && source.charAt(0) == BYTE_ORDER_MARK ? 1 : 0;
+        }
+
+        SourceHeader scanHeader() {
+            String packageName = "";
+
+            while (true) {
+                this.skipTrivia();
+                if (this.atEnd()) {
+                    return new SourceHeader(packageName, null);
+                }
+
+                char c = this.source.charAt(this.pos);
+                if (c == '@') {
+                    this.pos++;
+                    this.skipTrivia();
+                    // '@interface' declares an annotation type, anything else is an annotation usage
+                    if (this.lookingAtWord("interface")) {
+                        this.pos += "interface".length();
+                        return new SourceHeader(packageName, this.readIdentifier());
+                    }
+                    this.skipAnnotation();
+                    continue;
+                }
+                if (c == ';') {
+                    this.pos++;
+                    continue;
+                }
+
+                String word = this.readIdentifier();
+                if (word == null) {
+                    // Unexpected token, the header cannot be understood
+                    return new SourceHeader(packageName, null);
+                }
+                switch (word) {
+                    case "package" -> {
+                        packageName = this.readQualifiedName();
+                        this.skipStatement();
+                    }
+                    case "import" -> this.skipStatement();
+                    case "class", "interface", "enum", "record" -> {
+                        return new SourceHeader(packageName, this.readIdentifier());
+                    }
+                    case "non" -> this.skipNonSealed();
+                    default -> {
+                        // Modifiers such as public, abstract, final, sealed or strictfp
+                    }
+                }
+            }
+        }
+
+        private boolean atEnd() {
+            return this.pos >= this.source.length();
+        }
+
+        // Skip whitespace and comments
+        private void skipTrivia() {
+            while (!this.atEnd()) {
+                char c = this.source.charAt(this.pos);
+                if (Character.isWhitespace(c)) {
+                    this.pos++;
+                } else if (c == '/' && this.peek(1) == '/') {
+                    while (!this.atEnd() && this.source.charAt(this.pos) != '\n') {
+                        this.pos++;
+                    }
+                } else if (c == '/' && this.peek(1) == '*') {
+                    this.pos += 2;
+                    while (!this.atEnd() && !(this.source.charAt(this.pos) == '*' && this.peek(1) == '/')) {
+                        this.pos++;
+                    }
+                    this.pos = Math.min(this.pos + 2, this.source.length());
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private char peek(int offset) {
+            int index = this.pos + offset;
+            return index < this.source.length() ? this.source.charAt(index) : '\0';
+        }
+
+        private boolean lookingAtWord(String word) {
+            int end = this.pos + word.length();
+            if (end > this.source.length()) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (this.source.charAt(this.pos + i) != word.charAt(i)) {
+                    return false;
+                }
+            }
+            return end == this.source.length() || !Character.isJavaIdentifierPart(this.source.charAt(end));
+        }
+
+        private String readIdentifier() {
+            this.skipTrivia();
+            if (this.atEnd() || !Character.isJavaIdentifierStart(this.source.charAt(this.pos))) {
+                return null;
+            }
+            int start = this.pos;
+            while (!this.atEnd() && Character.isJavaIdentifierPart(this.source.charAt(this.pos))) {
+                this.pos++;
+            }
+            return this.source.subSequence(start, this.pos).toString();
+        }
+
+        private String readQualifiedName() {
+            StringBuilder name = new StringBuilder();
+            String part = this.readIdentifier();
+            while (part != null) {
+                name.append(part);
+                this.skipTrivia();
+                if (this.atEnd() || this.source.charAt(this.pos) != '.') {
+                    break;
+                }
+                this.pos++;
+                part = this.readIdentifier();
+                if (part != null) {
+                    name.append('.');
+                }
+            }
+            return name.toString();
+        }
+
+        // Skip up to and including the next ';'
+        private void skipStatement() {
+            while (!this.atEnd()) {
+                this.skipTrivia();
+                if (this.atEnd()) {
+                    return;
+                }
+                if (this.source.charAt(this.pos++) == ';') {
+                    return;
+                }
+            }
+        }
+
+        // Skip the name of an annotation and its arguments, if any
+        private void skipAnnotation() {
+            this.readQualifiedName();
+            this.skipTrivia();
+            if (this.atEnd() || this.source.charAt(this.pos) != '(') {
+                return;
+            }
+            int depth = 0;
+            while (!this.atEnd()) {
+                this.skipTrivia();
+                if (this.atEnd()) {
+                    return;
+                }
+                char c = this.source.charAt(this.pos++);
+                if (c == '"' || c == '\'') {
+                    this.skipLiteral(c);
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void skipLiteral(char quote) {
+            // Text blocks are delimited by three double quotes
+            if (quote == '"' && this.peek(0) == '"' && this.peek(1) == '"') {
+                this.pos += 2;
+                while (!this.atEnd() && !(this.source.charAt(this.pos) == '"'
+                        && this.peek(1) == '"' && this.peek(2) == '"')) {
+                    this.pos += this.source.charAt(this.pos) == '\\' ? 2 : 1;
+                }
+                this.pos = Math.min(this.pos + 3, this.source.length());
+                return;
+            }
+            while (!this.atEnd()) {
+                char c = this.source.charAt(this.pos++);
+                if (c == '\\') {
+                    this.pos++;
+                } else if (c == quote) {
+                    return;
+                }
+            }
+        }
+
+        // The 'non-sealed' modifier is lexed as 'non', '-', 'sealed'
+        private void skipNonSealed() {
+            this.skipTrivia();
+            if (!this.atEnd() && this.source.charAt(this.pos) == '-') {
+                this.pos++;
+                this.readIdentifier();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package common;
+
+import com.github.javaparser.*;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Loads source files for parsing without intermediate byte[] and String copies.
+ * Large files are memory mapped, smaller ones are read into a direct buffer reused by the calling
+ * thread, and the content is decoded into a char buffer that is also reused and fed to JavaParser
+ * through a reader. A {@link Source} is only valid until the next load on the same thread.
+ * On Windows a mapped file cannot be modified nor deleted until the mapping is garbage collected,
+ * so files are always read there.
+ */
+public class SourceLoader {
+    public static final int DEFAULT_MAPPING_THRESHOLD = 256 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    // Larger sources get buffers of their own, so one huge file does not stay pinned per thread
+    private static final int MAX_POOLED_SIZE = 4 * 1024 * 1024;
+    private static final boolean MAPPING_LOCKS_FILES = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final int mappingThreshold;
+    private final ThreadLocal<Source> sources;
+
+    public SourceLoader() {
+        this(DEFAULT_MAPPING_THRESHOLD);
+    }
+
+    /**
+     * @param mappingThreshold size in bytes from which files are memory mapped instead of read,
+     *                         ignored on Windows where files are never mapped
+     */
+    public SourceLoader(int mappingThreshold) {
+        this.mappingThreshold = mappingThreshold;
+        this.sources = ThreadLocal.withInitial(Source::new);
+    }
+
+    public Source load(Path file) throws IOException {
+        Source source = this.sources.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be parsed");
+            }
+            ByteBuffer bytes;
+            if (size >= this.mappingThreshold && !MAPPING_LOCKS_FILES) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = source.byteBuffer((int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // Read until the buffer is full or the file ends
+                }
+                bytes.flip();
+            }
+            source.decode(file, bytes);
+        }
+        return source;
+    }
+
+    /**
+     * Content of a loaded file, as bytes for hashing and as characters for parsing.
+     */
+    public static class Source {
+        private final CharsetDecoder decoder;
+        private ByteBuffer pooledBytes;
+        private CharBuffer pooledChars;
+        private ByteBuffer bytes;
+        private CharBuffer chars;
+        private Path file;
+
+        private Source() {
+            this.decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.pooledBytes = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+            this.pooledChars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+        }
+
+        public Path getFile() {
+            return this.file;
+        }
+
+        // Raw content, a read-only view that can be consumed without affecting the source
+        public ByteBuffer getBytes() {
+            return this.bytes.asReadOnlyBuffer();
+        }
+
+        public CharBuffer getChars() {
+            return this.chars.asReadOnlyBuffer();
+        }
+
+        public int length() {
+            return this.chars.remaining();
+        }
+
+        public Reader reader() {
+            return new CharBufferReader(this.chars.duplicate());
+        }
+
+        public ParseResult<CompilationUnit> parse(JavaParser parser) {
+            return parser.parse(ParseStart.COMPILATION_UNIT, Providers.provider(this.reader()));
+        }
+
+        private ByteBuffer byteBuffer(int size) {
+            if (size > MAX_POOLED_SIZE) {
+                return ByteBuffer.allocate(size);
+            }
+            if (this.pooledBytes.capacity() < size) {
+                this.pooledBytes = ByteBuffer.allocateDirect(Integer.highestOneBit(size) << 1);
+            }
+            this.pooledBytes.clear().limit(size);
+            return this.pooledBytes;
+        }
+
+        private void decode(Path file, ByteBuffer bytes) throws CharacterCodingException {
+            // UTF-8 never decodes to more chars than bytes
+            int size = bytes.remaining();
+            CharBuffer chars;
+            if (size > MAX_POOLED_SIZE) {
+                chars = CharBuffer.allocate(size);
+            } else {
+                if (this.pooledChars.capacity() < size) {
+                    this.pooledChars = CharBuffer.allocate(Integer.highestOneBit(size) << 1);
+                }
+                chars = this.pooledChars.clear();
+            }
+            this.decoder.reset();
+            CoderResult result = this.decoder.decode(bytes.duplicate(), chars, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            this.decoder.flush(chars);
+            chars.flip();
+
+            this.file = file;
+            this.bytes = bytes;
+            this.chars = chars;
+        }
+    }
+
+    // Reader over a char buffer, JavaParser copies the characters into its own stream buffer
+    private static class CharBufferReader extends Reader {
+        private final CharBuffer chars;
+
+        private CharBufferReader(CharBuffer chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!this.chars.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, this.chars.remaining());
+            this.chars.get(buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package common;
+
+import java.util.*;
+
+/**
+ * Decides which qualified type names are reported as dependencies.
+ * Rules are package globs prefixed by {@code +} (include) or {@code -} (exclude), where {@code *} matches
+ * one name segment and a trailing {@code **} matches any number of them, e.g. {@code -java.**} or
+ * {@code +java.util.concurrent.**}. The most specific matching rule wins, a literal segment being more
+ * specific than {@code *}; names matched by no rule are included.
+ * Rules are compiled into a trie of name segments, so a check walks the name once without allocating.
+ */
+public final class TypeFilter {
+    private static final Set<String> PRIMITIVE_TYPES = Set.of(
+            "void", "byte", "short", "int", "long", "float", "double", "boolean", "char"
+    );
+    private static final byte UNDECIDED = 0;
+    private static final byte INCLUDE = 1;
+    private static final byte EXCLUDE = 2;
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_SEGMENTS = "**";
+
+    public static final TypeFilter DEFAULT = new TypeFilter(List.of(
+            "-java.lang.**", "-java.util.**", "-java.io.**", "-java.math.**",
+            "-java.time.**", "-java.text.**", "-java.nio.**", "-java.net.**",
+            "-javafx.**", "-org.graphstream.**", "-com.github.javaparser.**"
+    ));
+
+    private final List<String> rules;
+    private final TrieNode root;
+
+    public TypeFilter(List<String> rules) {
+        // A later rule with the same pattern replaces the earlier one
+        Map<String, Character> patterns = new LinkedHashMap<>();
+        for (String rule : rules) {
+            String trimmed = rule.trim();
+            if (trimmed.length() < 2 || (trimmed.charAt(0) != '+' && trimmed.charAt(0) != '-')) {
+                throw new IllegalArgumentException("Type filter rule must be +glob or -glob: " + rule);
+            }
+            String pattern = trimmed.substring(1);
+            patterns.remove(pattern);
+            patterns.put(pattern, trimmed.charAt(0));
+        }
+
+        List<String> canonical = new ArrayList<>(patterns.size());
+        this.root = new TrieNode();
+        patterns.forEach((pattern, sign) -> {
+            this.add(pattern, sign == '+' ? INCLUDE : EXCLUDE);
+            canonical.add(sign + pattern);
+        });
+        this.rules = List.copyOf(canonical);
+    }
+
+    // Rules separated by commas or whitespace, e.g. "-java.**, +java.util.concurrent.**"
+    public static TypeFilter parse(String rules) {
+        return new TypeFilter(splitRules(rules));
+    }
+
+    // This filter with the given rules added, they replace the rules having the same pattern
+    public TypeFilter withOverrides(List<String> overrides) {
+        if (overrides.isEmpty()) {
+            return this;
+        }
+        List<String> combined = new ArrayList<>(this.rules);
+        combined.addAll(overrides);
+        return new TypeFilter(combined);
+    }
+
+    public TypeFilter withOverrides(String overrides) {
+        return this.withOverrides(splitRules(overrides));
+    }
+
+    public List<String> getRules() {
+        return this.rules;
+    }
+
+    public boolean test(String typeName) {
+        if (typeName == null
+                || typeName.isEmpty()
+                || PRIMITIVE_TYPES.contains(typeName)
+                || typeName.endsWith("[]")) {
+            return false;
+        }
+        return this.match(this.root, typeName, 0) != EXCLUDE;
+    }
+
+    // Decision of the most specific rule matching the segments of the name from the given index
+    private byte match(TrieNode node, String name, int start) {
+        if (start > name.length()) {
+            return node.decision != UNDECIDED ? node.decision : node.subtreeDecision;
+        }
+
+        int end = start;
+        int hash = 0;
+        while (end < name.length() && name.charAt(end) != '.') {
+            hash = 31 * hash + name.charAt(end);
+            end++;
+        }
+        TrieNode child = node.child(name, start, end - start, hash);
+        byte decision = child != null ? this.match(child, name, end + 1) : UNDECIDED;
+        if (decision == UNDECIDED && node.anySegment != null) {
+            decision = this.match(node.anySegment, name, end + 1);
+        }
+        return decision != UNDECIDED ? decision : node.subtreeDecision;
+    }
+
+    private void add(String pattern, byte decision) {
+        String[] segments = pattern.split("\\.", -1);
+        TrieNode node = this.root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals(ANY_SEGMENTS)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("** must be the last segment of a type filter rule: " + pattern);
+                }
+                node.subtreeDecision = decision;
+                return;
+            }
+            if (segment.isEmpty() || (!segment.equals(ANY_SEGMENT) && !isIdentifier(segment))) {
+                throw new IllegalArgumentException("Invalid segment '" + segment + "' in type filter rule: " + pattern);
+            }
+            node = segment.equals(ANY_SEGMENT) ? node.anySegmentChild() : node.literalChild(segment);
+        }
+        node.decision = decision;
+    }
+
+    private static boolean isIdentifier(String segment) {
+        if (!Character.isJavaIdentifierStart(segment.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < segment.length(); i++) {
+            if (!Character.isJavaIdentifierPart(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> splitRules(String rules) {
+        List<String> split = new ArrayList<>();
+        for (String rule : rules.split("[,\\s]+")) {
+            if (!rule.isEmpty()) {
+                split.add(rule);
+            }
+        }
+        return split;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TypeFilter && this.rules.equals(((TypeFilter) o).rules);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.rules.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", this.rules);
+    }
+
+    // Children are few per segment, they are scanned comparing the precomputed hashes first
+    private static class TrieNode {
+        private String[] labels = new String[0];
+        private int[] hashes = new int[0];
+        private TrieNode[] children = new TrieNode[0];
+        private TrieNode anySegment;
+        // Decision for the name ending at this node, and for every name below it
+        private byte decision;
+        private byte subtreeDecision;
+
+        private TrieNode child(String name, int start, int length, int hash) {
+            for (int i = 0; i < this.labels.length; i++) {
+                if (this.hashes[i] == hash
+                        && this.labels[i].length() == length
+                        && name.regionMatches(start, this.labels[i], 0, length)) {
+                    return this.children[i];
+                }
+            }
+            return null;
+        }
+
+        private TrieNode literalChild(String label) {
+            TrieNode child = this.child(label, 0, label.length(), label.hashCode());
+            if (child == null) {
+                int size = this.labels.length;
+                this.labels = Arrays.copyOf(this.labels, size + 1);
+                this.hashes = Arrays.copyOf(this.hashes, size + 1);
+                this.children = Arrays.copyOf(this.children, size + 1);
+                child = new TrieNode();
+                this.labels[size] = label;
+                this.hashes[size] = label.hashCode();
+                this.children[size] = child;
+            }
+            return child;
+        }
+
+        private TrieNode anySegmentChild() {
+            if (this.anySegment == null) {
+                this.anySegment = new TrieNode();
+            }
+            return this.anySegment;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package common;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.nodeTypes.*;
+import com.github.javaparser.ast.type.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes symbol-solver resolutions of type names.
+ * A simple name resolves to the same type in every compilation unit sharing the same source root,
+ * package, imports and supertypes, so results are keyed by that context and the name as written.
+ * Units extending or implementing types outside the JDK may inherit member types from sources that
+ * change, so they are never cached; nor are names declared in the unit itself or failed resolutions.
+ * It is safe to use from several threads.
+ */
+public class TypeResolutionCache {
+    public static final int DEFAULT_MAX_ENTRIES = 500_000;
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Integer> contextIds;
+    private final AtomicInteger nextContextId = new AtomicInteger();
+    private final ConcurrentHashMap<String, String> resolvedNames;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public TypeResolutionCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public TypeResolutionCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.contextIds = new ConcurrentHashMap<>();
+        this.resolvedNames = new ConcurrentHashMap<>();
+    }
+
+    // Resolution context of a compilation unit, create it once per unit
+    public UnitContext forUnit(String scope, CompilationUnit cu) {
+        return new UnitContext(scope, cu);
+    }
+
+    private String resolve(String contextKey, String typeName, Supplier<String> resolver) {
+        String key = contextKey + typeName;
+        String cached = this.resolvedNames.get(key);
+        if (cached != null) {
+            this.hits.increment();
+            return cached;
+        }
+
+        this.misses.increment();
+        String resolved = resolver.get();
+        if (resolved == null) {
+            // Not cached, the name may resolve once the sources it depends on are fixed
+            this.failures.increment();
+            return null;
+        }
+        if (this.resolvedNames.size() >= this.maxEntries) {
+            // Crude bound: start over rather than track recency on the hot path
+            this.resolvedNames.clear();
+        }
+        this.resolvedNames.put(key, resolved);
+        return resolved;
+    }
+
+    // Key of the context of a unit, null when its resolutions cannot be shared with other units
+    private String contextKey(String scope, CompilationUnit cu) {
+        StringBuilder context = new StringBuilder(scope).append('|');
+        cu.getPackageDeclaration().ifPresent(pd -> context.append(pd.getNameAsString()));
+        Map<String, String> importedTypes = new HashMap<>();
+        for (ImportDeclaration importDeclaration : cu.getImports()) {
+            context.append(';');
+            if (importDeclaration.isStatic()) {
+                context.append("static ");
+            }
+            context.append(importDeclaration.getNameAsString());
+            if (importDeclaration.isAsterisk()) {
+                context.append(".*");
+            } else if (!importDeclaration.isStatic()) {
+                importedTypes.put(importDeclaration.getName().getIdentifier(), importDeclaration.getNameAsString());
+            }
+        }
+
+        // Member types are inherited too, so units with different supertypes never share a context
+        context.append('|');
+        for (ClassOrInterfaceType supertype : supertypesOf(cu)) {
+            String name = supertype.getNameWithScope();
+            if (!isJdkType(name, importedTypes)) {
+                return null;
+            }
+            context.append(name).append(';');
+        }
+        return this.contextIds.computeIfAbsent(context.toString(), k -> this.nextContextId.getAndIncrement()) + "#";
+    }
+
+    private static List<ClassOrInterfaceType> supertypesOf(CompilationUnit cu) {
+        List<ClassOrInterfaceType> supertypes = new ArrayList<>();
+        for (TypeDeclaration<?> type : cu.findAll(TypeDeclaration.class)) {
+            if (type instanceof NodeWithExtends<?> withExtends) {
+                supertypes.addAll(withExtends.getExtendedTypes());
+            }
+            if (type instanceof NodeWithImplements<?> withImplements) {
+                supertypes.addAll(withImplements.getImplementedTypes());
+            }
+        }
+        return supertypes;
+    }
+
+    // Qualified or imported from a JDK package, or a java.lang type not shadowed by an import
+    private static boolean isJdkType(String name, Map<String, String> importedTypes) {
+        if (isJdkName(name)) {
+            return true;
+        }
+        String firstSegment = firstSegment(name);
+        String imported = importedTypes.get(firstSegment);
+        if (imported != null) {
+            return isJdkName(imported);
+        }
+        try {
+            Class.forName("java.lang." + firstSegment, false, ClassLoader.getPlatformClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static boolean isJdkName(String name) {
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    private static String firstSegment(String name) {
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    public void clear() {
+        this.resolvedNames.clear();
+        this.contextIds.clear();
+    }
+
+    public ResolutionStats getStats() {
+        return new ResolutionStats(this.hits.sum(), this.misses.sum(), this.failures.sum(), this.resolvedNames.size());
+    }
+
+    /**
+     * Names of a compilation unit resolved through the cache.
+     * Type parameters and types declared in the unit shadow imports, so they are recognized
+     * from the first segment of the name and always go to the resolver.
+     */
+    public class UnitContext {
+        private final String scope;
+        private final CompilationUnit cu;
+        private final Set<String> localTypeNames;
+        private final Set<String> typeParameterNames;
+        private boolean keyComputed;
+        private String contextKey;
+
+        private UnitContext(String scope, CompilationUnit cu) {
+            this.scope = scope;
+            this.cu = cu;
+            this.localTypeNames = new HashSet<>();
+            this.typeParameterNames = new HashSet<>();
+            cu.findAll(TypeDeclaration.class).forEach(type -> this.localTypeNames.add(type.getNameAsString()));
+            cu.findAll(TypeParameter.class).forEach(parameter -> this.typeParameterNames.add(parameter.getNameAsString()));
+            this.localTypeNames.addAll(this.typeParameterNames);
+        }
+
+        // Type variables are not types to resolve, they are kept as written
+        public boolean isTypeParameter(String typeName) {
+            return this.typeParameterNames.contains(firstSegment(typeName));
+        }
+
+        /**
+         * Resolve a type name as written, calling the resolver unless the name was already resolved in the same context.
+         * The resolver returns the qualified name, or null when resolution fails.
+         *
+         * @return the qualified name, or null when the name cannot be resolved
+         */
+        public String resolve(String typeName, Supplier<String> resolver) {
+            if (this.localTypeNames.contains(firstSegment(typeName))) {
+                return resolver.get();
+            }
+            if (!this.keyComputed) {
+                this.contextKey = TypeResolutionCache.this.contextKey(this.scope, this.cu);
+                this.keyComputed = true;
+            }
+            return this.contextKey != null
+                    ? TypeResolutionCache.this.resolve(this.contextKey, typeName, resolver)
+                    : resolver.get();
+        }
+    }
+
+    /**
+     * Snapshot of the resolution cache counters.
+     */
+    public static class ResolutionStats {
+        private final long hits;
+        private final long misses;
+        private final long failures;
+        private final int entryCount;
+
+        public ResolutionStats(long hits, long misses, long failures, int entryCount) {
+            this.hits = hits;
+            this.misses = misses;
+            this.failures = failures;
+            this.entryCount = entryCount;
+        }
+
+        public long getHits() {
+            return this.hits;
+        }
+
+        public long getMisses() {
+            return this.misses;
+        }
+
+        // Resolutions that failed in the symbol solver, never cached
+        public long getFailures() {
+            return this.failures;
+        }
+
+        public int getEntryCount() {
+            return this.entryCount;
+        }
+
+        public double getHitRate() {
+            long lookups = this.hits + this.misses;
+            return lookups == 0 ? 0 : (double) this.hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d (hit rate %.1f%%), failures=%d, entries=%d",
+                    this.hits, this.misses, this.getHitRate() * 100, this.failures, this.entryCount);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package generator;
+
+/**
+ * Shape of a project written by {@link ProjectGenerator}.
+ */
+public class GeneratorOptions {
+    public static final String DEFAULT_ROOT_PACKAGE = "gen";
+
+    private String rootPackage;
+    private int packageCount;
+    private int classesPerPackage;
+    private int interfacesPerPackage;
+    private int dependenciesPerClass;
+    private double localDependencyRatio;
+    private int inheritanceDepth;
+    private double genericsRatio;
+    private double cycleRatio;
+    private long seed;
+
+    public GeneratorOptions() {
+        this.rootPackage = DEFAULT_ROOT_PACKAGE;
+        this.packageCount = 20;
+        this.classesPerPackage = 50;
+        this.interfacesPerPackage = 2;
+        this.dependenciesPerClass = 4;
+        this.localDependencyRatio = 0.7;
+        this.inheritanceDepth = 3;
+        this.genericsRatio = 0.2;
+        this.cycleRatio = 0.05;
+        this.seed = 42;
+    }
+
+    public String getRootPackage() {
+        return this.rootPackage;
+    }
+
+    public GeneratorOptions setRootPackage(String rootPackage) {
+        if (rootPackage == null || !rootPackage.matches("[a-z][a-z0-9_]*(\\.[a-z][a-z0-9_]*)*")) {
+            throw new IllegalArgumentException("Invalid root package: " + rootPackage);
+        }
+        this.rootPackage = rootPackage;
+        return this;
+    }
+
+    public int getPackageCount() {
+        return this.packageCount;
+    }
+
+    public GeneratorOptions setPackageCount(int packageCount) {
+        if (packageCount < 1) {
+            throw new IllegalArgumentException("Package count must be positive: " + packageCount);
+        }
+        this.packageCount = packageCount;
+        return this;
+    }
+
+    public int getClassesPerPackage() {
+        return this.classesPerPackage;
+    }
+
+    public GeneratorOptions setClassesPerPackage(int classesPerPackage) {
+        if (classesPerPackage < 1) {
+            throw new IllegalArgumentException("Classes per package must be positive: " + classesPerPackage);
+        }
+        this.classesPerPackage = classesPerPackage;
+        return this;
+    }
+
+    public int getInterfacesPerPackage() {
+        return this.interfacesPerPackage;
+    }
+
+    // Interfaces are implemented by the classes of the same package
+    public GeneratorOptions setInterfacesPerPackage(int interfacesPerPackage) {
+        if (interfacesPerPackage < 0) {
+            throw new IllegalArgumentException("Interfaces per package must not be negative: " + interfacesPerPackage);
+        }
+        this.interfacesPerPackage = interfacesPerPackage;
+        return this;
+    }
+
+    public int getDependenciesPerClass() {
+        return this.dependenciesPerClass;
+    }
+
+    // Fields, parameters, return types and instantiations of other classes declared by each class
+    public GeneratorOptions setDependenciesPerClass(int dependenciesPerClass) {
+        if (dependenciesPerClass < 0) {
+            throw new IllegalArgumentException("Dependencies per class must not be negative: " + dependenciesPerClass);
+        }
+        this.dependenciesPerClass = dependenciesPerClass;
+        return this;
+    }
+
+    public double getLocalDependencyRatio() {
+        return this.localDependencyRatio;
+    }
+
+    // Share of the dependencies that target a class of the same package
+    public GeneratorOptions setLocalDependencyRatio(double localDependencyRatio) {
+        this.localDependencyRatio = checkRatio(localDependencyRatio);
+        return this;
+    }
+
+    public int getInheritanceDepth() {
+        return this.inheritanceDepth;
+    }
+
+    // Length of the extends chains inside a package, 1 for no inheritance
+    public GeneratorOptions setInheritanceDepth(int inheritanceDepth) {
+        if (inheritanceDepth < 1) {
+            throw new IllegalArgumentException("Inheritance depth must be positive: " + inheritanceDepth);
+        }
+        this.inheritanceDepth = inheritanceDepth;
+        return this;
+    }
+
+    public double getGenericsRatio() {
+        return this.genericsRatio;
+    }
+
+    // Share of the field dependencies written as a type argument, as in List<Target>
+    public GeneratorOptions setGenericsRatio(double genericsRatio) {
+        this.genericsRatio = checkRatio(genericsRatio);
+        return this;
+    }
+
+    public double getCycleRatio() {
+        return this.cycleRatio;
+    }
+
+    // Share of the dependencies whose target gets a field pointing back, closing a cycle
+    public GeneratorOptions setCycleRatio(double cycleRatio) {
+        this.cycleRatio = checkRatio(cycleRatio);
+        return this;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    // Same options and seed always generate the same project
+    public GeneratorOptions setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getFileCount() {
+        return this.packageCount * (this.classesPerPackage + this.interfacesPerPackage);
+    }
+
+    private static double checkRatio(double ratio) {
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("Ratio must be between 0 and 1: " + ratio);
+        }
+        return ratio;
+    }
+}
@@ -0,0 +1,226 @@
+package generator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Dependencies a generated project is known to contain, used to check the analysers.
+ * Only types of the generated project are compared: JDK types and names the analysers
+ * could not qualify are left out of both sides.
+ */
+public class GroundTruth {
+    public static final String FILE_NAME = "expected-dependencies.tsv";
+    private static final String ROOT_HEADER = "# root ";
+    private static final int MAX_EXAMPLES = 10;
+
+    public enum Kind {
+        EXTENDS,
+        IMPLEMENTS,
+        FIELD,
+        METHOD_PARAMETER,
+        METHOD_RETURN,
+        INSTANTIATION,
+        // Type used only as a type argument, as in List<Target>
+        TYPE_ARGUMENT
+    }
+
+    private final String rootPackage;
+    private final Set<String> types;
+    private final Map<String, Map<String, EnumSet<Kind>>> dependencies;
+
+    public GroundTruth(String rootPackage) {
+        this.rootPackage = rootPackage;
+        this.types = new HashSet<>();
+        this.dependencies = new HashMap<>();
+    }
+
+    public static GroundTruth load(Path expectedFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(expectedFile, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(ROOT_HEADER)) {
+                throw new IOException("Missing root package header in " + expectedFile);
+            }
+            GroundTruth groundTruth = new GroundTruth(header.substring(ROOT_HEADER.length()));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t");
+                if (columns.length == 1) {
+                    groundTruth.addType(columns[0]);
+                } else if (columns.length == 3) {
+                    groundTruth.addDependency(columns[0], columns[1], Kind.valueOf(columns[2]));
+                } else {
+                    throw new IOException("Malformed line in " + expectedFile + ": " + line);
+                }
+            }
+            return groundTruth;
+        }
+    }
+
+    public void save(Path expectedFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(expectedFile, StandardCharsets.UTF_8)) {
+            writer.write(ROOT_HEADER + this.rootPackage);
+            writer.newLine();
+            for (String type : this.types) {
+                writer.write(type);
+                writer.newLine();
+            }
+            for (Map.Entry<String, Map<String, EnumSet<Kind>>> source : this.dependencies.entrySet()) {
+                for (Map.Entry<String, EnumSet<Kind>> target : source.getValue().entrySet()) {
+                    for (Kind kind : target.getValue()) {
+                        writer.write(source.getKey() + "\t" + target.getKey() + "\t" + kind);
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+    }
+
+    public void addType(String type) {
+        this.types.add(type);
+    }
+
+    public void addDependency(String source, String target, Kind kind) {
+        this.types.add(source);
+        this.dependencies.computeIfAbsent(source, s -> new HashMap<>())
+                .computeIfAbsent(target, t -> EnumSet.noneOf(Kind.class))
+                .add(kind);
+    }
+
+    public String getRootPackage() {
+        return this.rootPackage;
+    }
+
+    public int getTypeCount() {
+        return this.types.size();
+    }
+
+    /**
+     * Expected target types of every type.
+     *
+     * @param includeTypeArguments whether targets only used as type arguments count, analysers
+     *                             that only look at declared types do not see them
+     */
+    public Map<String, Set<String>> getDependencies(boolean includeTypeArguments) {
+        Map<String, Set<String>> expected = new HashMap<>();
+        for (Map.Entry<String, Map<String, EnumSet<Kind>>> source : this.dependencies.entrySet()) {
+            for (Map.Entry<String, EnumSet<Kind>> target : source.getValue().entrySet()) {
+                EnumSet<Kind> kinds = target.getValue();
+                if (includeTypeArguments || !kinds.equals(EnumSet.of(Kind.TYPE_ARGUMENT))) {
+                    expected.computeIfAbsent(source.getKey(), s -> new HashSet<>()).add(target.getKey());
+                }
+            }
+        }
+        return expected;
+    }
+
+    // Compare the dependencies found by an analyser, keyed by qualified source type
+    public Comparison compare(Map<String, ? extends Collection<String>> actual, boolean includeTypeArguments) {
+        Map<String, Set<String>> expected = this.getDependencies(includeTypeArguments);
+        String prefix = this.rootPackage + ".";
+        Comparison comparison = new Comparison();
+
+        Set<String> analysedTypes = new HashSet<>();
+        for (Map.Entry<String, ? extends Collection<String>> source : actual.entrySet()) {
+            analysedTypes.add(source.getKey());
+            Set<String> expectedTargets = expected.getOrDefault(source.getKey(), Set.of());
+            Set<String> actualTargets = new HashSet<>(source.getValue());
+            for (String target : actualTargets) {
+                if (!target.startsWith(prefix)) {
+                    continue;
+                }
+                if (expectedTargets.contains(target)) {
+                    comparison.matched++;
+                } else {
+                    comparison.addUnexpected(source.getKey() + " -> " + target);
+                }
+            }
+            for (String target : expectedTargets) {
+                if (!actualTargets.contains(target)) {
+                    comparison.addMissing(source.getKey() + " -> " + target);
+                }
+            }
+        }
+        for (String type : this.types) {
+            if (!analysedTypes.contains(type)) {
+                comparison.missingTypes++;
+                for (String target : expected.getOrDefault(type, Set.of())) {
+                    comparison.addMissing(type + " -> " + target);
+                }
+            }
+        }
+        comparison.expected = expected.values().stream().mapToInt(Set::size).sum();
+        return comparison;
+    }
+
+    /**
+     * Outcome of {@link #compare(Map, boolean)}, with a few examples of each kind of mismatch.
+     */
+    public static class Comparison {
+        private int expected;
+        private int matched;
+        private int missing;
+        private int unexpected;
+        private int missingTypes;
+        private final List<String> missingExamples = new ArrayList<>();
+        private final List<String> unexpectedExamples = new ArrayList<>();
+
+        public int getExpected() {
+            return this.expected;
+        }
+
+        public int getMatched() {
+            return this.matched;
+        }
+
+        public int getMissing() {
+            return this.missing;
+        }
+
+        public int getUnexpected() {
+            return this.unexpected;
+        }
+
+        // Generated types the analyser produced no report for
+        public int getMissingTypes() {
+            return this.missingTypes;
+        }
+
+        public boolean isExact() {
+            return this.missing == 0 && this.unexpected == 0 && this.missingTypes == 0;
+        }
+
+        private void addMissing(String dependency) {
+            this.missing++;
+            if (this.missingExamples.size() < MAX_EXAMPLES) {
+                this.missingExamples.add(dependency);
+            }
+        }
+
+        private void addUnexpected(String dependency) {
+            this.unexpected++;
+            if (this.unexpectedExamples.size() < MAX_EXAMPLES) {
+                this.unexpectedExamples.add(dependency);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(this.isExact() ? "MATCH" : "MISMATCH")
+                    .append(" expected=").append(this.expected)
+                    .append(", matched=").append(this.matched)
+                    .append(", missing=").append(this.missing)
+                    .append(", unexpected=").append(this.unexpected)
+                    .append(", missingTypes=").append(this.missingTypes);
+            for (String example : this.missingExamples) {
+                sb.append("\n\tmissing: ").append(example);
+            }
+            for (String example : this.unexpectedExamples) {
+                sb.append("\n\tunexpected: ").append(example);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package generator;
+
+import generator.GroundTruth.Kind;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Writes a synthetic Java source tree together with the dependencies it contains.
+ * Every package holds classes named P{package}C{index} and interfaces named P{package}I{index}, so
+ * simple names never clash. Classes form extends chains, implement the interfaces of their package,
+ * and reference other classes through fields, parameters, return types and instantiations.
+ */
+public class ProjectGenerator {
+    public static final String SOURCE_FOLDER = "src";
+    private static final Kind[] REFERENCE_KINDS = {
+            Kind.FIELD, Kind.METHOD_PARAMETER, Kind.METHOD_RETURN, Kind.INSTANTIATION
+    };
+
+    private final GeneratorOptions options;
+
+    public ProjectGenerator(GeneratorOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Generate the sources under {@code outputDir/src} and the expected dependencies
+     * in {@code outputDir/expected-dependencies.tsv}.
+     */
+    public GroundTruth generate(Path outputDir) throws IOException {
+        Path sourceRoot = outputDir.resolve(SOURCE_FOLDER);
+        List<List<Reference>> plans = this.planReferences();
+        GroundTruth groundTruth = new GroundTruth(this.options.getRootPackage());
+
+        for (int pkg = 0; pkg < this.options.getPackageCount(); pkg++) {
+            Path packageDir = sourceRoot.resolve(this.packageName(pkg).replace('.', File.separatorChar));
+            Files.createDirectories(packageDir);
+            for (int i = 0; i < this.options.getInterfacesPerPackage(); i++) {
+                groundTruth.addType(this.interfaceName(pkg, i));
+                this.write(packageDir.resolve(this.simpleInterfaceName(pkg, i) + ".java"),
+                        "package " + this.packageName(pkg) + ";\n\npublic interface "
+                                + this.simpleInterfaceName(pkg, i) + " {\n}\n");
+            }
+            for (int c = 0; c < this.options.getClassesPerPackage(); c++) {
+                int index = pkg * this.options.getClassesPerPackage() + c;
+                groundTruth.addType(this.className(index));
+                this.write(packageDir.resolve(this.simpleClassName(index) + ".java"),
+                        this.classSource(index, plans.get(index), groundTruth));
+            }
+        }
+
+        groundTruth.save(outputDir.resolve(GroundTruth.FILE_NAME));
+        return groundTruth;
+    }
+
+    // Decide every reference up front, cycles add references to classes planned earlier
+    private List<List<Reference>> planReferences() {
+        Random random = new Random(this.options.getSeed());
+        int classCount = this.options.getPackageCount() * this.options.getClassesPerPackage();
+        List<List<Reference>> plans = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            plans.add(new ArrayList<>());
+        }
+        if (classCount < 2) {
+            return plans;
+        }
+
+        for (int index = 0; index < classCount; index++) {
+            for (int d = 0; d < this.options.getDependenciesPerClass(); d++) {
+                int target = this.pickTarget(index, random);
+                if (target == index) {
+                    continue;
+                }
+                Kind kind = REFERENCE_KINDS[d % REFERENCE_KINDS.length];
+                if (kind == Kind.FIELD && random.nextDouble() < this.options.getGenericsRatio()) {
+                    kind = Kind.TYPE_ARGUMENT;
+                }
+                plans.get(index).add(new Reference(target, kind));
+                if (random.nextDouble() < this.options.getCycleRatio()) {
+                    plans.get(target).add(new Reference(index, Kind.FIELD));
+                }
+            }
+        }
+        return plans;
+    }
+
+    private int pickTarget(int index, Random random) {
+        int classesPerPackage = this.options.getClassesPerPackage();
+        if (random.nextDouble() < this.options.getLocalDependencyRatio()) {
+            return (index / classesPerPackage) * classesPerPackage + random.nextInt(classesPerPackage);
+        }
+        return random.nextInt(this.options.getPackageCount() * classesPerPackage);
+    }
+
+    private String classSource(int index, List<Reference> references, GroundTruth groundTruth) {
+        int classesPerPackage = this.options.getClassesPerPackage();
+        int pkg = index / classesPerPackage;
+        int position = index % classesPerPackage;
+        int depth = this.options.getInheritanceDepth();
+        String className = this.className(index);
+
+        SortedSet<String> imports = new TreeSet<>();
+        StringBuilder body = new StringBuilder();
+        StringBuilder declaration = new StringBuilder("public class ").append(this.simpleClassName(index));
+        if (position % depth != 0) {
+            declaration.append(" extends ").append(this.simpleClassName(index - 1));
+            groundTruth.addDependency(className, this.className(index - 1), Kind.EXTENDS);
+        } else if (this.options.getInterfacesPerPackage() > 0) {
+            int implemented = (position / depth) % this.options.getInterfacesPerPackage();
+            declaration.append(" implements ").append(this.simpleInterfaceName(pkg, implemented));
+            groundTruth.addDependency(className, this.interfaceName(pkg, implemented), Kind.IMPLEMENTS);
+        }
+
+        // Method names include the class name, so subclasses never override with another signature
+        String methodPrefix = "method" + this.simpleClassName(index) + "_";
+        for (int i = 0; i < references.size(); i++) {
+            Reference reference = references.get(i);
+            String target = this.simpleClassName(reference.target);
+            if (reference.target / classesPerPackage != pkg) {
+                imports.add(this.className(reference.target));
+            }
+            groundTruth.addDependency(className, this.className(reference.target), reference.kind);
+
+            switch (reference.kind) {
+                case FIELD -> body.append("    private ").append(target).append(" field").append(i).append(";\n");
+                case TYPE_ARGUMENT -> {
+                    imports.add("java.util.List");
+                    body.append("    private List<").append(target).append("> field").append(i).append(";\n");
+                }
+                case METHOD_PARAMETER -> body.append("    public void ").append(methodPrefix).append(i)
+                        .append("(").append(target).append(" value) {\n    }\n");
+                case METHOD_RETURN -> body.append("    public ").append(target).append(" ").append(methodPrefix).append(i)
+                        .append("() {\n        return null;\n    }\n");
+                case INSTANTIATION -> body.append("    public void ").append(methodPrefix).append(i)
+                        .append("() {\n        new ").append(target).append("();\n    }\n");
+                default -> throw new IllegalStateException("Unexpected reference kind " + reference.kind);
+            }
+        }
+
+        StringBuilder source = new StringBuilder("package ").append(this.packageName(pkg)).append(";\n\n");
+        for (String imported : imports) {
+            source.append("import ").append(imported).append(";\n");
+        }
+        if (!imports.isEmpty()) {
+            source.append("\n");
+        }
+        return source.append(declaration).append(" {\n").append(body).append("}\n").toString();
+    }
+
+    private void write(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private String packageName(int pkg) {
+        return this.options.getRootPackage() + ".p" + pkg;
+    }
+
+    private String simpleClassName(int index) {
+        int classesPerPackage = this.options.getClassesPerPackage();
+        return "P" + (index / classesPerPackage) + "C" + (index % classesPerPackage);
+    }
+
+    private String className(int index) {
+        return this.packageName(index / this.options.getClassesPerPackage()) + "." + this.simpleClassName(index);
+    }
+
+    private String simpleInterfaceName(int pkg, int index) {
+        return "P" + pkg + "I" + index;
+    }
+
+    private String interfaceName(int pkg, int index) {
+        return this.packageName(pkg) + "." + this.simpleInterfaceName(pkg, index);
+    }
+
+    private static class Reference {
+        private final int target;
+        private final Kind kind;
+
+        private Reference(int target, Kind kind) {
+            this.target = target;
+            this.kind = kind;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package generator;
+
+import asynchronous.analyser.*;
+import asynchronous.report.*;
+import asynchronous.util.TypeDependency;
+import common.AnalysisLevel;
+import io.vertx.core.Vertx;
+import reactive.model.*;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Generates a synthetic project and runs both analysers on it, checking their results against
+ * the ground truth and printing the time each one took.
+ * Arguments: number of source files (default 1000) and output directory (default a temporary one).
+ * The analysis level is read from the generator.analysisLevel system property.
+ */
+public class ScaleTest {
+    private static final int CLASSES_PER_PACKAGE = 50;
+
+    public static void main(String[] args) throws Exception {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0].replace("k", "000")) : 1000;
+        Path outputDir = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("generated-project");
+        AnalysisLevel analysisLevel = AnalysisLevel.valueOf(
+                System.getProperty("generator.analysisLevel", AnalysisLevel.IMPORTS_ONLY.name()));
+
+        GeneratorOptions options = new GeneratorOptions()
+                .setClassesPerPackage(CLASSES_PER_PACKAGE)
+                .setPackageCount(Math.max(1, fileCount / (CLASSES_PER_PACKAGE + 2)));
+        long start = System.nanoTime();
+        GroundTruth groundTruth = new ProjectGenerator(options).generate(outputDir);
+        Path sourceRoot = outputDir.resolve(ProjectGenerator.SOURCE_FOLDER);
+        System.out.println("Generated " + options.getFileCount() + " files in " + outputDir
+                + " (" + millisSince(start) + " ms)");
+
+        // Asynchronous library, type arguments are not reported by its visitor
+        Vertx vertx = Vertx.vertx();
+        try {
+            DependencyAnalyserLib dependencyAnalyser = new DependencyAnalyserLib(vertx,
+                    new AnalyserOptions().setAnalysisLevel(analysisLevel));
+            start = System.nanoTime();
+            ProjectDepsReport projectReport = dependencyAnalyser.getProjectDependencies(sourceRoot)
+                    .toCompletionStage().toCompletableFuture().get();
+            long asyncMillis = millisSince(start);
+            dependencyAnalyser.close().toCompletionStage().toCompletableFuture().get();
+
+            Map<String, Set<String>> asyncDependencies = new HashMap<>();
+            for (PackageDepsReport packageReport : projectReport.getPackageReports().values()) {
+                for (ClassDepsReport classReport : packageReport.getClassReports().values()) {
+                    asyncDependencies.put(classReport.getClassName(), classReport.getDependencies().stream()
+                            .map(TypeDependency::getTargetType)
+                            .collect(Collectors.toSet()));
+                }
+            }
+            System.out.println("DependencyAnalyserLib (" + analysisLevel + ", " + asyncMillis + " ms): "
+                    + groundTruth.compare(asyncDependencies, false));
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get();
+        }
+
+        // Reactive analyser, every type reference is reported
+        ReactiveDependencyAnalyser reactiveAnalyser = new ReactiveDependencyAnalyser(null);
+        reactiveAnalyser.setAnalysisLevel(analysisLevel);
+        start = System.nanoTime();
+        List<ClassDependency> classDependencies = reactiveAnalyser.getJavaFiles(sourceRoot.toString())
+                .compose(reactiveAnalyser::analyseFiles)
+                .toList()
+                .blockingGet();
+        long reactiveMillis = millisSince(start);
+
+        Map<String, Set<String>> reactiveDependencies = new HashMap<>();
+        for (ClassDependency classDependency : classDependencies) {
+            reactiveDependencies.put(classDependency.getClassName(), classDependency.getDependencies());
+        }
+        System.out.println("ReactiveDependencyAnalyser (" + analysisLevel + ", " + reactiveAnalyser.getParallelism()
+                + " threads, " + reactiveMillis + " ms): "
+                + groundTruth.compare(reactiveDependencies, true));
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
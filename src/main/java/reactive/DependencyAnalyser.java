@@ -1,10 +1,15 @@
 package reactive;
 
+import common.*;
 import javafx.application.Application;
 import javafx.stage.*;
 import reactive.controller.AnalysisController;
 import reactive.model.ReactiveDependencyAnalyser;
-import reactive.view.AnalysisView;
+import reactive.view.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
 
 /* Implemented by:
     Giacomo Foschi
@@ -40,7 +45,30 @@ public class DependencyAnalyser extends Application {
     public void start(Stage primaryStage) {
         // Set up MVC components
         AnalysisView view = new AnalysisView();
-        ReactiveDependencyAnalyser model = new ReactiveDependencyAnalyser();
+        // Complete log on disk, the view only keeps the latest lines, e.g. -Danalyser.logFile=analysis.log
+        String logFile = System.getProperty("analyser.logFile");
+        if (logFile != null) {
+            view.getLogView().setSpillFile(Path.of(logFile));
+        }
+        // Persistent result cache, off unless a directory is given, e.g. -Danalyser.cacheDirectory=/tmp/analyser-cache
+        String cacheDirectory = System.getProperty("analyser.cacheDirectory");
+        DiskCache resultCache = null;
+        if (cacheDirectory != null) {
+            try {
+                resultCache = DiskCache.open(Path.of(cacheDirectory), ReactiveDependencyAnalyser.DEFAULT_CACHE_MAX_BYTES,
+                        ReactiveDependencyAnalyser.DEFAULT_CACHE_MAX_ENTRIES);
+            } catch (IOException e) {
+                view.appendLog(LogLevel.WARNING, e.getMessage() + ", result caching disabled");
+            }
+        }
+        ReactiveDependencyAnalyser model = new ReactiveDependencyAnalyser(resultCache);
+        // Extra filter rules, e.g. -Danalyser.typeFilter=+java.util.concurrent.**,-org.slf4j.**
+        model.setTypeFilter(TypeFilter.DEFAULT.withOverrides(System.getProperty("analyser.typeFilter", "")));
+        // Directory names not walked, e.g. -Danalyser.skippedDirectories=build,.git,target,out
+        String skippedDirectories = System.getProperty("analyser.skippedDirectories");
+        if (skippedDirectories != null) {
+            model.setSkippedDirectories(Set.copyOf(List.of(skippedDirectories.split(","))));
+        }
         this.controller = new AnalysisController(view, model, primaryStage);
 
         view.setupStage(primaryStage);
@@ -1,9 +1,9 @@
 package reactive.controller;
 
-import io.reactivex.rxjava3.core.BackpressureOverflowStrategy;
+import common.*;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
-import io.reactivex.rxjava3.exceptions.MissingBackpressureException;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subscribers.DisposableSubscriber;
 import javafx.application.Platform;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
@@ -12,17 +12,20 @@ import org.graphstream.ui.fx_viewer.*;
 import org.graphstream.ui.layout.springbox.implementations.LinLog;
 import org.graphstream.ui.view.Viewer;
 import reactive.model.*;
-import reactive.view.AnalysisView;
+import reactive.view.*;
 
 import java.io.File;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.*;
 
 /**
  * Controller class that handles the business logic for dependency analysis
  */
 public class AnalysisController {
-    private static final int BUFFER_SIZE = 1000;
+    // Results are applied to the view in batches of bounded size, and only as many are requested
+    // from the analysis as the view has applied, so at most one batch waits for the FX thread
+    private static final int MAX_BATCH_SIZE = 500;
     private final AnalysisView view;
     private final ReactiveDependencyAnalyser analyser;
     private final Stage primaryStage;
@@ -30,9 +33,19 @@ public class AnalysisController {
     private final CompositeDisposable disposables;
     private final AtomicInteger classCount;
     private final AtomicInteger dependencyCount;
-    private final Map<String, String> nodeIdMap;
+    private final AtomicInteger unqualifiedTypeCount;
+    private final AtomicInteger discoveredFileCount;
+    private final AtomicInteger pendingUiUpdates;
+    private final Queue<ClassDependency> pendingResults;
+    private final AtomicBoolean uiUpdateScheduled;
+    private final AnalysisMetrics metrics;
+    private final GraphDeltaModel graphModel;
     private String projectFolder;
     private FxViewer viewer;
+    private long analysisStartNanos;
+    private ResultSubscriber resultSubscriber;
+    // Run on the FX thread once the last queued result has been applied
+    private Runnable onDrained;
 
     public AnalysisController(AnalysisView view, ReactiveDependencyAnalyser analyser, Stage primaryStage) {
         this.view = view;
@@ -42,7 +55,17 @@ public class AnalysisController {
         this.disposables = new CompositeDisposable();
         this.classCount = new AtomicInteger(0);
         this.dependencyCount = new AtomicInteger(0);
-        this.nodeIdMap = new HashMap<>();
+        this.unqualifiedTypeCount = new AtomicInteger(0);
+        this.discoveredFileCount = new AtomicInteger(0);
+        this.pendingUiUpdates = new AtomicInteger(0);
+        this.pendingResults = new ConcurrentLinkedQueue<>();
+        this.uiUpdateScheduled = new AtomicBoolean(false);
+        this.graphModel = new GraphDeltaModel();
+
+        // Files found but not analysed yet, and analysed classes not shown yet
+        this.metrics = this.analyser.getMetrics();
+        this.metrics.registerQueue("pendingFiles", () -> this.discoveredFileCount.get() - this.classCount.get());
+        this.metrics.registerQueue("pendingUiUpdates", this.pendingUiUpdates::get);
 
         this.initializeEventHandlers();
     }
@@ -64,6 +87,10 @@ public class AnalysisController {
         // Wire up the start button
         this.view.getStartButton().setOnAction(e -> this.startAnalysis());
 
+        // Wire up the metrics button, usable while the analysis runs
+        this.view.getMetricsButton().setOnAction(e ->
+                this.view.appendLog("Metrics: " + this.metrics.snapshot().toShortString() + "\n"));
+
         // Wire up the zoom slider
         this.view.getZoomSlider().valueProperty().addListener((observable, oldValue, newValue) -> {
             double zoomFactor = newValue.doubleValue();
@@ -78,55 +105,102 @@ public class AnalysisController {
 
     public void startAnalysis() {
         if (this.projectFolder == null || this.projectFolder.isEmpty()) {
-            this.view.appendLog("Error: No project folder selected\n");
+            this.view.appendLog(LogLevel.ERROR, "Error: No project folder selected");
             return;
         }
 
         this.resetAnalysis();
 
-        this.view.appendLog("Starting analysis of: " + this.projectFolder + "\n");
-        this.view.getStartButton().setDisable(true);
-        this.view.getFolderButton().setDisable(true);
-
-        // Process the Java files reactively
+        AnalysisLevel level = this.view.getImportsOnlyCheckBox().isSelected()
+                ? AnalysisLevel.IMPORTS_ONLY
+                : AnalysisLevel.FULL_RESOLUTION;
+        this.analyser.setAnalysisLevel(level);
+        this.analyser.setParallelism(this.view.getParallelismSpinner().getValue());
+        this.analyser.setOrdered(this.view.getOrderedCheckBox().isSelected());
+        // Sources may have changed since the last run, solvers and resolutions must not outlive it
+        this.analyser.invalidateTypeSolvers();
+
+        this.view.appendLog("Starting analysis of: " + this.projectFolder + " (" + level + ", "
+                + this.analyser.getParallelism() + " threads" + (this.analyser.isOrdered() ? ", ordered" : "") + ")\n");
+        this.setControlsDisabled(true);
+
+        // Process the Java files reactively, the walk only lists as many files as the parsers request
+        // and the parsers only produce as many results as the view requests
+        this.resultSubscriber = new ResultSubscriber();
         this.disposables.add(
                 this.analyser.getJavaFiles(this.projectFolder)
-                        .onBackpressureBuffer(BUFFER_SIZE, () -> {}, BackpressureOverflowStrategy.ERROR)
-                        .map(analyser::parseClassDependencies)
-                        .observeOn(Schedulers.single())
-                        .subscribe(
-                                classDep -> {
-                                    // Update counters and UI
-                                    this.classCount.incrementAndGet();
-                                    this.dependencyCount.addAndGet(classDep.getDependencyCount());
-                                    Platform.runLater(() -> {
-                                        this.view.updateClassesCount(this.classCount.get());
-                                        this.view.updateDependenciesCount(this.dependencyCount.get());
-                                        this.view.appendLog("Analyzed class: " + classDep.getClassName() +
-                                                " - Dependencies: " + classDep.getDependencyCount() + "\n");
-                                        updateGraph(classDep);
-                                    });
-                                },
-                                error -> Platform.runLater(() -> {
-                                    if (error instanceof MissingBackpressureException) {
-                                        this.view.appendLog("Error: Too many classes, buffer full\n");
-                                    } else {
-                                        this.view.appendLog("Error: " + error.getMessage() + "\n");
-                                    }
-                                    this.view.getStartButton().setDisable(false);
-                                    this.view.getFolderButton().setDisable(false);
-                                }),
-                                () -> Platform.runLater(() -> {
-                                    this.view.appendLog("Analysis completed!\n");
-                                    this.view.appendLog("Total classes: " + this.classCount.get() + "\n");
-                                    this.view.appendLog("Total dependencies: " + this.dependencyCount.get() + "\n");
-                                    this.view.getStartButton().setDisable(false);
-                                    this.view.getFolderButton().setDisable(false);
-                                })
-                        )
+                        .doOnNext(file -> this.discoveredFileCount.incrementAndGet())
+                        .compose(this.analyser::analyseFiles)
+                        .subscribeWith(this.resultSubscriber)
         );
     }
 
+    // Count a result and make sure a single UI update is pending to show it
+    private void enqueueResult(ClassDependency classDep) {
+        long aggregateStart = this.metrics.start();
+        this.classCount.incrementAndGet();
+        this.dependencyCount.addAndGet(classDep.getDependencyCount());
+        this.unqualifiedTypeCount.addAndGet(classDep.getUnqualifiedTypeCount());
+        this.metrics.record(AnalysisMetrics.Phase.AGGREGATE, aggregateStart);
+
+        this.pendingUiUpdates.incrementAndGet();
+        this.pendingResults.add(classDep);
+        if (this.uiUpdateScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::applyPendingBatches);
+        }
+    }
+
+    // Apply up to MAX_BATCH_SIZE queued results on the FX thread, the rest waits for the next pulse
+    private void applyPendingBatches() {
+        // Cleared first, so results queued while applying schedule the next update
+        this.uiUpdateScheduled.set(false);
+        long uiStart = this.metrics.start();
+        List<String> log = new ArrayList<>();
+        List<ClassDependency> classDeps = new ArrayList<>();
+        ClassDependency classDep;
+        while (classDeps.size() < MAX_BATCH_SIZE && (classDep = this.pendingResults.poll()) != null) {
+            log.add("Analyzed class: " + classDep.getClassName()
+                    + " - Dependencies: " + classDep.getDependencyCount());
+            classDeps.add(classDep);
+        }
+        if (!classDeps.isEmpty()) {
+            this.updateGraph(this.graphModel.apply(classDeps));
+
+            this.view.updateClassesCount(this.classCount.get());
+            this.view.updateDependenciesCount(this.dependencyCount.get());
+            double elapsedSeconds = (System.nanoTime() - this.analysisStartNanos) / 1e9;
+            this.view.updateThroughput(elapsedSeconds > 0 ? this.classCount.get() / elapsedSeconds : 0);
+            this.view.appendLog(LogLevel.DEBUG, log);
+            this.pendingUiUpdates.addAndGet(-classDeps.size());
+            this.metrics.record(AnalysisMetrics.Phase.UI_UPDATE, uiStart);
+            // Room has been made in the view for as many results as were applied
+            this.resultSubscriber.requestMore(classDeps.size());
+        }
+
+        if (!this.pendingResults.isEmpty()) {
+            if (this.uiUpdateScheduled.compareAndSet(false, true)) {
+                Platform.runLater(this::applyPendingBatches);
+            }
+        } else if (this.onDrained != null) {
+            Runnable drained = this.onDrained;
+            this.onDrained = null;
+            drained.run();
+        }
+    }
+
+    // Called on the FX thread once the analysis has emitted its last result
+    private void completeAnalysis() {
+        this.view.appendLog("Analysis completed!\n");
+        this.view.appendLog("Total classes: " + this.classCount.get() + "\n");
+        this.view.appendLog("Total dependencies: " + this.dependencyCount.get() + "\n");
+        this.view.appendLog("Unqualified type names: " + this.unqualifiedTypeCount.get() + "\n");
+        this.analyser.getCacheStats().ifPresent(stats ->
+                this.view.appendLog("Result cache: " + stats + "\n"));
+        this.view.appendLog("Type resolution: " + this.analyser.getResolutionStats() + "\n");
+        this.view.appendLog(this.metrics.snapshot().toString());
+        this.setControlsDisabled(false);
+    }
+
     // Reset the analysis state
     private void resetAnalysis() {
         if (this.viewer != null) {
@@ -136,13 +210,21 @@ public class AnalysisController {
 
         this.classCount.set(0);
         this.dependencyCount.set(0);
+        this.unqualifiedTypeCount.set(0);
+        this.discoveredFileCount.set(0);
+        this.pendingUiUpdates.set(0);
+        this.pendingResults.clear();
+        this.onDrained = null;
+        this.metrics.reset();
+        this.analysisStartNanos = System.nanoTime();
 
         this.view.clearLog();
         this.view.updateClassesCount(0);
         this.view.updateDependenciesCount(0);
+        this.view.updateThroughput(0);
 
         this.graph.clear();
-        this.nodeIdMap.clear();
+        this.graphModel.clear();
 
         this.viewer = new FxViewer(this.graph, Viewer.ThreadingModel.GRAPH_IN_GUI_THREAD);
         LinLog layout = new LinLog(false);
@@ -165,58 +247,43 @@ public class AnalysisController {
         });
     }
 
-    // Update the graph with a new class dependency
-    private void updateGraph(ClassDependency classDep) {
-        String className = simplifyClassName(classDep.getClassName());
-        String nodeId = getOrCreateNodeId(className);
-
-        if (this.graph.getNode(nodeId) == null) {
-            Node node = this.graph.addNode(nodeId);
-            node.setAttribute("ui.label", className);
-            node.setAttribute("ui.size", 30 + classDep.getDependencyCount() * 2);
-        }
-
-        // Add dependencies as edges
-        for (String dependency : classDep.getDependencies()) {
-            String depName = simplifyClassName(dependency);
-            String depNodeId = getOrCreateNodeId(depName);
-
-            if (this.graph.getNode(depNodeId) == null) {
-                Node depNode = this.graph.addNode(depNodeId);
-                depNode.setAttribute("ui.label", depName);
-                depNode.setAttribute("ui.size", 25);
-            }
+    private void setControlsDisabled(boolean disabled) {
+        this.view.getStartButton().setDisable(disabled);
+        this.view.getFolderButton().setDisable(disabled);
+        this.view.getImportsOnlyCheckBox().setDisable(disabled);
+        this.view.getParallelismSpinner().setDisable(disabled);
+        this.view.getOrderedCheckBox().setDisable(disabled);
+    }
 
-            String edgeId = nodeId + "-" + depNodeId;
-            if (this.graph.getEdge(edgeId) == null) {
-                Edge edge = this.graph.addEdge(edgeId, nodeId, depNodeId, true);
-                edge.setAttribute("ui.style", "size: 2px;");
+    // Add the new elements of a batch to the graph, their look comes from the stylesheet
+    private void updateGraph(GraphDeltaModel.Delta delta) {
+        for (int i = 0; i < delta.getAddedNodeCount(); i++) {
+            int id = delta.getAddedNode(i);
+            Node node = this.graph.addNode(nodeId(id));
+            node.setAttribute("ui.label", this.graphModel.labelOf(id));
+            if (!this.graphModel.isAnalysed(id)) {
+                node.setAttribute("ui.class", "dependency");
             }
         }
 
-        if (this.graph.getNodeCount() > 0) {
-            Platform.runLater(this::updateNodeLabelPos);
+        // Classes shown as a dependency earlier are restyled when their own result arrives
+        for (int i = 0; i < delta.getAnalysedNodeCount(); i++) {
+            int id = delta.getAnalysedNode(i);
+            Node node = this.graph.getNode(nodeId(id));
+            node.removeAttribute("ui.class");
+            node.setAttribute("ui.size", 30 + this.graphModel.getDependencyCount(id) * 2);
         }
-    }
 
-    private void updateNodeLabelPos() {
-        try {
-            for (Node node : this.graph) {
-                node.setAttribute("ui.style", "text-offset: 0px, -25px;");
-            }
-        } catch (Exception e) {
-            System.err.println("Error updating node label positions: " + e.getMessage());
+        for (int i = 0; i < delta.getAddedEdgeCount(); i++) {
+            long edge = delta.getAddedEdge(i);
+            String sourceId = nodeId(GraphDeltaModel.sourceOf(edge));
+            String targetId = nodeId(GraphDeltaModel.targetOf(edge));
+            this.graph.addEdge(sourceId + "-" + targetId, sourceId, targetId, true);
         }
     }
 
-    //Simplify a fully qualified class name for display
-    private String simplifyClassName(String fullName) {
-        int lastDot = fullName.lastIndexOf('.');
-        return lastDot > 0 ? fullName.substring(lastDot + 1) : fullName;
-    }
-
-    private String getOrCreateNodeId(String className) {
-        return nodeIdMap.computeIfAbsent(className, k -> "n" + nodeIdMap.size());
+    private static String nodeId(int id) {
+        return "n" + id;
     }
 
     public boolean handleCloseRequest() {
@@ -231,6 +298,7 @@ public class AnalysisController {
     public void shutdown() {
         this.disposables.dispose();
         this.closeViewer();
+        this.view.getLogView().close();
 
         try {
             Schedulers.shutdown();
@@ -255,4 +323,38 @@ public class AnalysisController {
             }
         }
     }
-}
\ No newline at end of file
+
+    // Requests MAX_BATCH_SIZE results up front, then one more for every result the view applies
+    private class ResultSubscriber extends DisposableSubscriber<ClassDependency> {
+        @Override
+        protected void onStart() {
+            this.request(MAX_BATCH_SIZE);
+        }
+
+        @Override
+        public void onNext(ClassDependency classDep) {
+            AnalysisController.this.enqueueResult(classDep);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            Platform.runLater(() -> {
+                AnalysisController.this.view.appendLog(LogLevel.ERROR, "Error: " + error.getMessage());
+                AnalysisController.this.setControlsDisabled(false);
+            });
+        }
+
+        @Override
+        public void onComplete() {
+            // The summary waits until the queued results have been applied, a bounded batch per pulse
+            Platform.runLater(() -> {
+                AnalysisController.this.onDrained = AnalysisController.this::completeAnalysis;
+                AnalysisController.this.applyPendingBatches();
+            });
+        }
+
+        void requestMore(long count) {
+            this.request(count);
+        }
+    }
+}
@@ -9,10 +9,16 @@ import java.util.Set;
 public class ClassDependency {
     private final String className;
     private final Set<String> dependencies;
+    private final int unqualifiedTypeCount;
 
     public ClassDependency(String className, Set<String> dependencies) {
+        this(className, dependencies, 0);
+    }
+
+    public ClassDependency(String className, Set<String> dependencies, int unqualifiedTypeCount) {
         this.className = className;
         this.dependencies = dependencies;
+        this.unqualifiedTypeCount = unqualifiedTypeCount;
     }
 
     public String getClassName() {
@@ -27,6 +33,11 @@ public class ClassDependency {
         return dependencies.size();
     }
 
+    // Type names that could be neither resolved nor qualified from the imports
+    public int getUnqualifiedTypeCount() {
+        return this.unqualifiedTypeCount;
+    }
+
     @Override
     public String toString() {
         return "ClassDependency{" + "className='" + className + '\'' + ", dependencies=" + dependencies + '}';
@@ -0,0 +1,46 @@
+package reactive.model;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Binary encoding of a {@link ClassDependency}, used to persist analysis results.
+ */
+public class ClassDependencyCodec {
+    private static final int FORMAT_VERSION = 2;
+
+    public static byte[] encode(ClassDependency classDependency) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(classDependency.getClassName());
+            out.writeInt(classDependency.getUnqualifiedTypeCount());
+            out.writeInt(classDependency.getDependencyCount());
+            for (String dependency : classDependency.getDependencies()) {
+                out.writeUTF(dependency);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ClassDependency decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported class dependency format version " + version);
+            }
+            String className = in.readUTF();
+            int unqualifiedTypeCount = in.readInt();
+            int count = in.readInt();
+            Set<String> dependencies = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                dependencies.add(in.readUTF());
+            }
+            return new ClassDependency(className, dependencies, unqualifiedTypeCount);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupted class dependency", e);
+        }
+    }
+}
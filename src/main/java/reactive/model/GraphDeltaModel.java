@@ -0,0 +1,237 @@
+package reactive.model;
+
+import java.util.*;
+
+/**
+ * Classes and dependencies already shown in the graph, keyed by fully qualified name.
+ * Names are registered to dense int ids and edges are kept as packed pairs of ids, both in
+ * open addressing tables of primitives. Applying a batch of results returns only what the
+ * graph does not contain yet, so the view never walks or restyles what it already shows.
+ */
+public class GraphDeltaModel {
+    private String[] keys;
+    private int[] keyIds;
+    private String[] names;
+    private int[] dependencyCounts;
+    private BitSet analysed;
+    private int nodeCount;
+    private long[] edges;
+    private int edgeCount;
+
+    public GraphDeltaModel() {
+        this.clear();
+    }
+
+    public void clear() {
+        this.keys = new String[64];
+        this.keyIds = new int[64];
+        this.names = new String[32];
+        this.dependencyCounts = new int[32];
+        this.analysed = new BitSet();
+        this.nodeCount = 0;
+        this.edges = new long[64];
+        this.edgeCount = 0;
+    }
+
+    /**
+     * Register the analysed classes and their dependencies.
+     * A class first seen as a dependency of another one is reported again, as analysed, once its own result arrives.
+     */
+    public Delta apply(Collection<ClassDependency> classDeps) {
+        Delta delta = new Delta();
+        for (ClassDependency classDep : classDeps) {
+            int source = this.idOf(classDep.getClassName(), delta);
+            if (!this.analysed.get(source)) {
+                this.analysed.set(source);
+                this.dependencyCounts[source] = classDep.getDependencyCount();
+                delta.analysedNodes.add(source);
+            }
+            for (String dependency : classDep.getDependencies()) {
+                int target = this.idOf(dependency, delta);
+                if (target != source && this.addEdge(source, target)) {
+                    delta.addedEdges.add(edge(source, target));
+                }
+            }
+        }
+        return delta;
+    }
+
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return this.edgeCount;
+    }
+
+    public String nameOf(int id) {
+        return this.names[id];
+    }
+
+    // Simple name of the class, for display
+    public String labelOf(int id) {
+        String name = this.names[id];
+        int lastDot = name.lastIndexOf('.');
+        return lastDot > 0 ? name.substring(lastDot + 1) : name;
+    }
+
+    // Classes only seen as dependencies are not analysed
+    public boolean isAnalysed(int id) {
+        return this.analysed.get(id);
+    }
+
+    public int getDependencyCount(int id) {
+        return this.dependencyCounts[id];
+    }
+
+    public static int sourceOf(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    public static int targetOf(long edge) {
+        return (int) edge;
+    }
+
+    private static long edge(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    private int idOf(String name, Delta delta) {
+        int mask = this.keys.length - 1;
+        int slot = name.hashCode() * 0x9E3779B9 >>> 1 & mask;
+        while (this.keys[slot] != null) {
+            if (this.keys[slot].equals(name)) {
+                return this.keyIds[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = this.nodeCount++;
+        if (id == this.names.length) {
+            this.names = Arrays.copyOf(this.names, id * 2);
+            this.dependencyCounts = Arrays.copyOf(this.dependencyCounts, id * 2);
+        }
+        this.names[id] = name;
+        this.keys[slot] = name;
+        this.keyIds[slot] = id;
+        delta.addedNodes.add(id);
+        if (this.nodeCount * 2 > this.keys.length) {
+            this.growKeys();
+        }
+        return id;
+    }
+
+    // True when the edge was not registered yet, 0 marks an empty slot so edges are stored plus one
+    private boolean addEdge(int source, int target) {
+        long key = edge(source, target) + 1;
+        int mask = this.edges.length - 1;
+        int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 33) & mask;
+        while (this.edges[slot] != 0) {
+            if (this.edges[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.edges[slot] = key;
+        this.edgeCount++;
+        if (this.edgeCount * 2 > this.edges.length) {
+            this.growEdges();
+        }
+        return true;
+    }
+
+    private void growKeys() {
+        String[] oldKeys = this.keys;
+        int[] oldIds = this.keyIds;
+        this.keys = new String[oldKeys.length * 2];
+        this.keyIds = new int[oldKeys.length * 2];
+        int mask = this.keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldKeys[i].hashCode() * 0x9E3779B9 >>> 1 & mask;
+                while (this.keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.keyIds[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private void growEdges() {
+        long[] oldEdges = this.edges;
+        this.edges = new long[oldEdges.length * 2];
+        int mask = this.edges.length - 1;
+        for (long key : oldEdges) {
+            if (key != 0) {
+                int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 33) & mask;
+                while (this.edges[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                this.edges[slot] = key;
+            }
+        }
+    }
+
+    /**
+     * Elements to add to the graph after a batch: new nodes, nodes whose class has just been
+     * analysed (new or already shown as a dependency) and new edges, all in arrival order.
+     */
+    public static class Delta {
+        private final IntList addedNodes = new IntList();
+        private final IntList analysedNodes = new IntList();
+        private final LongList addedEdges = new LongList();
+
+        public int getAddedNodeCount() {
+            return this.addedNodes.size;
+        }
+
+        public int getAddedNode(int index) {
+            return this.addedNodes.values[index];
+        }
+
+        public int getAnalysedNodeCount() {
+            return this.analysedNodes.size;
+        }
+
+        public int getAnalysedNode(int index) {
+            return this.analysedNodes.values[index];
+        }
+
+        public int getAddedEdgeCount() {
+            return this.addedEdges.size;
+        }
+
+        public long getAddedEdge(int index) {
+            return this.addedEdges.values[index];
+        }
+
+        public boolean isEmpty() {
+            return this.addedNodes.size == 0 && this.analysedNodes.size == 0 && this.addedEdges.size == 0;
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+    }
+
+    private static class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        private void add(long value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package reactive.model;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Lazy depth-first walk of a source tree emitting its Java files.
+ * Directories are listed only as the downstream requests more files, so the first files are
+ * emitted at once and only the directory streams along the current path are held open.
+ * Directories whose name is in the skip set are not entered.
+ */
+public class JavaFileWalker {
+    public static final Set<String> DEFAULT_SKIPPED_DIRECTORIES = Set.of("build", ".git", "target");
+
+    private final Set<String> skippedDirectories;
+
+    public JavaFileWalker() {
+        this(DEFAULT_SKIPPED_DIRECTORIES);
+    }
+
+    public JavaFileWalker(Set<String> skippedDirectories) {
+        this.skippedDirectories = Set.copyOf(skippedDirectories);
+    }
+
+    public Set<String> getSkippedDirectories() {
+        return this.skippedDirectories;
+    }
+
+    // Every subscription walks the tree again, an unreadable root fails it
+    public Flowable<Path> walk(Path root) {
+        return Flowable.generate(() -> new WalkState(root), (state, emitter) -> {
+            try {
+                Path next = state.next();
+                if (next != null) {
+                    emitter.onNext(next);
+                } else {
+                    emitter.onComplete();
+                }
+            } catch (IOException e) {
+                emitter.onError(e);
+            }
+        }, WalkState::close);
+    }
+
+    private class WalkState {
+        private final Deque<DirectoryStream<Path>> openStreams;
+        private final Deque<Iterator<Path>> iterators;
+
+        private WalkState(Path root) throws IOException {
+            this.openStreams = new ArrayDeque<>();
+            this.iterators = new ArrayDeque<>();
+            this.open(Files.newDirectoryStream(root));
+        }
+
+        // Next Java file of the walk, null once the whole tree has been listed
+        private Path next() throws IOException {
+            while (!this.iterators.isEmpty()) {
+                Path entry;
+                try {
+                    Iterator<Path> entries = this.iterators.peek();
+                    if (!entries.hasNext()) {
+                        this.closeCurrent();
+                        continue;
+                    }
+                    entry = entries.next();
+                } catch (DirectoryIteratorException e) {
+                    // The rest of a directory failing to list is skipped
+                    this.closeCurrent();
+                    continue;
+                }
+
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (attributes.isDirectory()) {
+                    if (!JavaFileWalker.this.skippedDirectories.contains(entry.getFileName().toString())) {
+                        this.openSubdirectory(entry);
+                    }
+                } else if (attributes.isRegularFile() && entry.getFileName().toString().endsWith(".java")) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        // Unreadable subdirectories are skipped, unlike the root
+        private void openSubdirectory(Path dir) {
+            try {
+                this.open(Files.newDirectoryStream(dir));
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void open(DirectoryStream<Path> stream) {
+            this.openStreams.push(stream);
+            this.iterators.push(stream.iterator());
+        }
+
+        private void closeCurrent() throws IOException {
+            this.iterators.pop();
+            this.openStreams.pop().close();
+        }
+
+        private void close() throws IOException {
+            while (!this.openStreams.isEmpty()) {
+                this.closeCurrent();
+            }
+        }
+    }
+}
@@ -3,76 +3,280 @@ package reactive.model;
 import com.github.javaparser.*;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.type.ClassOrInterfaceType;
-import common.ParserConfigurator;
+import com.github.javaparser.ast.type.*;
+import common.*;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.*;
 
 /**
  * Model class for dependency analysis using reactive streams
  */
 public class ReactiveDependencyAnalyser {
-    private JavaParser parser;
-    private final ParserConfigurator parserConfigurator = new ParserConfigurator();
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    public static final long DEFAULT_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+    public static final int DEFAULT_CACHE_MAX_ENTRIES = 100_000;
+    private static final String CACHE_VERSION = "reactive-2";
+    private final Map<AnalysisLevel, ParserConfigurator> parserConfigurators = new EnumMap<>(AnalysisLevel.class);
+    private final SourceHeaderScanner headerScanner = new SourceHeaderScanner();
+    private final SourceLoader sourceLoader = new SourceLoader();
+    private final DiskCache resultCache;
+    private final AnalysisMetrics metrics = new AnalysisMetrics();
+    private volatile AnalysisLevel analysisLevel = AnalysisLevel.FULL_RESOLUTION;
+    private volatile TypeFilter typeFilter = TypeFilter.DEFAULT;
+    private volatile JavaFileWalker fileWalker = new JavaFileWalker();
+    private volatile int parallelism = DEFAULT_PARALLELISM;
+    private volatile boolean ordered = false;
+    private volatile ParserConfigurator parserConfigurator;
+    private volatile ParserProvider parserProvider;
 
+    // Without a result cache
+    public ReactiveDependencyAnalyser() {
+        this(null);
+    }
+
+    /**
+     * A null cache disables result caching.
+     * Only IMPORTS_ONLY results are cached: with symbol resolution the result of a file also
+     * depends on the other files of the project, which its content hash cannot see.
+     */
+    public ReactiveDependencyAnalyser(DiskCache resultCache) {
+        this.resultCache = resultCache;
+        this.parserConfigurator = this.getParserConfigurator(this.analysisLevel);
+        this.parserProvider = this.parserConfigurator.getParserProvider();
+    }
+
+    // Forget the type solvers and cached resolutions of every analysed folder, to be called when sources may have changed
+    public synchronized void invalidateTypeSolvers() {
+        this.parserConfigurators.values().forEach(ParserConfigurator::invalidateAll);
+    }
+
+    // Level used from the next call to prepare or getJavaFiles
+    public void setAnalysisLevel(AnalysisLevel analysisLevel) {
+        this.analysisLevel = Objects.requireNonNull(analysisLevel);
+    }
+
+    public AnalysisLevel getAnalysisLevel() {
+        return this.analysisLevel;
+    }
+
+    // Filter used from the next call to prepare or getJavaFiles
+    public void setTypeFilter(TypeFilter typeFilter) {
+        this.typeFilter = Objects.requireNonNull(typeFilter);
+    }
+
+    public TypeFilter getTypeFilter() {
+        return this.typeFilter;
+    }
+
+    // Names of the directories not entered by getJavaFiles, JavaFileWalker.DEFAULT_SKIPPED_DIRECTORIES by default
+    public void setSkippedDirectories(Set<String> skippedDirectories) {
+        this.fileWalker = new JavaFileWalker(skippedDirectories);
+    }
+
+    public Set<String> getSkippedDirectories() {
+        return this.fileWalker.getSkippedDirectories();
+    }
 
-    // Get all Java files from the given directory recursively
+    // Files parsed at the same time by analyseFiles, 1 parses them one after another on the discovery thread;
+    // the computation scheduler has DEFAULT_PARALLELISM threads, so higher values add no parser
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    // Emit the results of analyseFiles in the order of the files, at the cost of holding back finished ones
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public boolean isOrdered() {
+        return this.ordered;
+    }
+
+    // Counters of the result cache, empty when caching is disabled
+    public Optional<DiskCache.CacheStats> getCacheStats() {
+        return Optional.ofNullable(this.resultCache).map(DiskCache::getStats);
+    }
+
+    // Select the parsers of the given project for the current level and filter, used by the following analyses
+    public void prepare(String projectPath) {
+        ParserConfigurator configurator = this.getParserConfigurator(this.analysisLevel);
+        configurator.setTypeFilter(this.typeFilter);
+        this.parserConfigurator = configurator;
+        this.parserProvider = configurator.getParserProvider(List.of(new File(projectPath)));
+    }
+
+    // Prepare the analysis of the given directory, and emit its Java files lazily as the walk finds them
     public Flowable<Path> getJavaFiles(String projectPath) {
-        this.parser = parserConfigurator.createParserWithResolvers(List.of(new File(projectPath)));
-
-        return Flowable.defer(() -> {
-            try (Stream<Path> paths = Files.walk(Paths.get(projectPath))) {
-                Set<Path> javaFiles = paths
-                        .filter(Files::isRegularFile)
-                        .filter(p -> p.toString().endsWith(".java"))
-                        .collect(Collectors.toSet());
-                return Flowable.fromIterable(javaFiles);
-            } catch (IOException e) {
-                return Flowable.error(e);
-            }
-        }).subscribeOn(Schedulers.io());
+        this.prepare(projectPath);
+        return this.fileWalker.walk(Paths.get(projectPath)).subscribeOn(Schedulers.io());
+    }
+
+    // Phase timings and counters, reset by the caller at the start of a run
+    public AnalysisMetrics getMetrics() {
+        return this.metrics;
     }
 
-    // Parse a Java file to extract class dependencies
+    /**
+     * Analyse the given files with the current parallelism.
+     * Files are parsed on the computation scheduler, where every thread gets its own parser
+     * from the parser provider, and the results are merged back into a single stream.
+     */
+    public Flowable<ClassDependency> analyseFiles(Flowable<Path> files) {
+        int parallelism = this.parallelism;
+        if (parallelism == 1) {
+            return files.map(this::parseClassDependencies);
+        }
+        if (this.ordered) {
+            // Up to parallelism files run at once, later results wait for the earlier ones
+            return files.concatMapEager(file -> Flowable.fromCallable(() -> this.parseClassDependencies(file))
+                    .subscribeOn(Schedulers.computation()), parallelism, 1);
+        }
+        return files.parallel(parallelism)
+                .runOn(Schedulers.computation())
+                .map(this::parseClassDependencies)
+                .sequential();
+    }
+
+    public TypeResolutionCache.ResolutionStats getResolutionStats() {
+        return this.parserConfigurator.getResolutionCache().getStats();
+    }
+
+    private synchronized ParserConfigurator getParserConfigurator(AnalysisLevel level) {
+        return this.parserConfigurators.computeIfAbsent(level, ParserConfigurator::new);
+    }
+
+    // Parse a Java file to extract class dependencies, safe to call from several threads
     public ClassDependency parseClassDependencies(Path file) {
         try {
-            CompilationUnit cu = parser.parse(file).getResult().orElseThrow();
-            String className = cu.getPrimaryType()
-                    .map(TypeDeclaration::getNameAsString)
-                    .orElse(file.getFileName().toString().replace(".java", ""));
-            String packageName = cu.getPackageDeclaration()
-                    .map(pkg -> pkg.getName().asString())
-                    .orElse("default");
-            String fullClassName = packageName + "." + className;
-
-            // Find all class/interface type references
-            Set<String> dependencies = new HashSet<>();
-            cu.findAll(ClassOrInterfaceType.class).forEach(type -> {
-                String depName = type.getNameAsString();
-                if (!depName.equals(className)) {
-                    String qualifiedName = resolveTypeName(type, depName);
-                    if (parserConfigurator.shouldIncludeType(qualifiedName)) {
-                        dependencies.add(qualifiedName);
-                    }
-                }
-            });
+            long readStart = this.metrics.start();
+            SourceLoader.Source source = this.sourceLoader.load(file);
+            this.metrics.record(AnalysisMetrics.Phase.READ, readStart);
+            ParserConfigurator configurator = this.parserConfigurator;
+            ParserProvider provider = this.parserProvider;
+            if (this.resultCache == null || configurator.getAnalysisLevel() != AnalysisLevel.IMPORTS_ONLY) {
+                return this.analyseSource(file, source, configurator, provider);
+            }
 
-            return new ClassDependency(fullClassName, dependencies);
+            // Unchanged files are served from the cache, the path is part of the key since classes may be named after it
+            String cacheKey = DiskCache.key(CACHE_VERSION + "|" + configurator.getConfigurationKey()
+                    + "|" + file.toAbsolutePath().normalize(), source.getBytes());
+            Optional<byte[]> cached = this.resultCache.get(cacheKey);
+            if (cached.isPresent()) {
+                try {
+                    ClassDependency classDependency = ClassDependencyCodec.decode(cached.get());
+                    this.metrics.fileAnalysed();
+                    return classDependency;
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+            ClassDependency classDependency = this.analyseSource(file, source, configurator, provider);
+            this.resultCache.put(cacheKey, ClassDependencyCodec.encode(classDependency));
+            return classDependency;
         } catch (IOException e) {
+            this.metrics.fileFailed();
             return new ClassDependency(file.getFileName().toString().replace(".java", ""), new HashSet<>());
         }
     }
 
-    private String resolveTypeName(ClassOrInterfaceType type, String defaultName) {
+    private ClassDependency analyseSource(Path file, SourceLoader.Source source,
+                                          ParserConfigurator configurator, ParserProvider provider) {
+        long parseStart = this.metrics.start();
+        Optional<CompilationUnit> parsed = source.parse(provider.get()).getResult();
+        this.metrics.record(AnalysisMetrics.Phase.PARSE, parseStart);
+        if (parsed.isEmpty()) {
+            this.metrics.fileFailed();
+            // Unparsable file, still named from its header so it shows up in the graph
+            return new ClassDependency(this.readClassName(file), new HashSet<>());
+        }
+        CompilationUnit cu = parsed.get();
+        // The primary type is looked up through the storage file name
+        cu.setStorage(file);
+        String className = cu.getPrimaryType()
+                .map(TypeDeclaration::getNameAsString)
+                .orElse(file.getFileName().toString().replace(".java", ""));
+        String packageName = cu.getPackageDeclaration()
+                .map(pkg -> pkg.getName().asString())
+                .orElse("default");
+        String fullClassName = packageName + "." + className;
+
+        // Resolutions are shared with files having the same imports, see TypeResolutionCache
+        TypeResolutionCache.UnitContext unitContext = configurator.getResolutionCache().forUnit(provider.getScope(), cu);
+        ImportQualifier importQualifier = configurator.getAnalysisLevel() == AnalysisLevel.IMPORTS_ONLY
+                ? new ImportQualifier(cu)
+                : null;
+
+        // Find all class/interface type references
+        long visitStart = this.metrics.start();
+        Set<String> dependencies = new HashSet<>();
+        int unqualifiedTypeCount = 0;
+        for (ClassOrInterfaceType type : cu.findAll(ClassOrInterfaceType.class)) {
+            String depName = type.getNameAsString();
+            if (depName.equals(className)) {
+                continue;
+            }
+            String nameWithScope = type.getNameWithScope();
+
+            String resolved;
+            if (unitContext.isTypeParameter(nameWithScope)) {
+                resolved = nameWithScope;
+            } else if (importQualifier != null) {
+                resolved = importQualifier.qualify(nameWithScope);
+            } else {
+                resolved = unitContext.resolve(nameWithScope, () -> resolveWithSolver(type));
+            }
+            if (resolved == null) {
+                this.metrics.resolutionFailed();
+                unqualifiedTypeCount++;
+            }
+
+            String qualifiedName = resolved != null ? resolved : fallbackTypeName(type, depName);
+            if (configurator.shouldIncludeType(qualifiedName)) {
+                dependencies.add(qualifiedName);
+            }
+        }
+        this.metrics.record(AnalysisMetrics.Phase.VISIT, visitStart);
+        this.metrics.fileAnalysed();
+
+        return new ClassDependency(fullClassName, dependencies, unqualifiedTypeCount);
+    }
+
+    // Name a class from the header of its file, without building an AST
+    private String readClassName(Path file) {
+        String fileName = file.getFileName().toString().replace(".java", "");
+        try {
+            SourceHeaderScanner.SourceHeader header = this.headerScanner.scan(file);
+            String packageName = header.getPackageName().isEmpty() ? "default" : header.getPackageName();
+            return packageName + "." + (header.hasTypeName() ? header.getTypeName() : fileName);
+        } catch (IOException e) {
+            return fileName;
+        }
+    }
+
+    // Qualified name through the symbol solver, null when it cannot be resolved
+    private String resolveWithSolver(ClassOrInterfaceType type) {
+        long resolveStart = this.metrics.start();
         try {
             return type.resolve().asReferenceType().getQualifiedName();
         } catch (Exception ignored) {
+            // Counted by the caller, once per name left unqualified
+        } finally {
+            this.metrics.record(AnalysisMetrics.Phase.RESOLVE, resolveStart);
         }
+        return null;
+    }
+
+    private String fallbackTypeName(ClassOrInterfaceType type, String defaultName) {
         return type.getScope()
                 .map(scope -> scope.asString() + "." + defaultName)
                 .orElse(defaultName);
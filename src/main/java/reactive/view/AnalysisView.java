@@ -1,13 +1,14 @@
 package reactive.view;
 
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
-import java.util.Objects;
+import java.util.*;
 
 
 /**
@@ -17,17 +18,23 @@ public class AnalysisView {
 
     private final BorderPane root;
     private final GraphView graphView;
-    private TextArea logTextArea;
+    private final LogView logView;
     private Label classesCountLabel;
     private Label dependenciesCountLabel;
+    private Label throughputLabel;
     private Button startButton;
     private Button folderButton;
+    private Button metricsButton;
+    private CheckBox importsOnlyCheckBox;
+    private Spinner<Integer> parallelismSpinner;
+    private CheckBox orderedCheckBox;
     private Slider zoomSlider;
     private Label zoomLabel;
 
     public AnalysisView() {
         this.root = new BorderPane();
         this.graphView = new GraphView();
+        this.logView = new LogView();
 
         setupTopPanel();
         setupCenterPanel();
@@ -55,7 +62,25 @@ public class AnalysisView {
         this.startButton = new Button("Start Analysis");
         this.startButton.setDisable(true);
 
-        topPanel.getChildren().addAll(folderButton, startButton);
+        this.importsOnlyCheckBox = new CheckBox("Fast analysis (imports only)");
+        this.importsOnlyCheckBox.setTooltip(new Tooltip("Qualify names from the imports only, without the symbol solver"));
+
+        Label parallelismLabel = new Label("Parsing threads:");
+        // Files are parsed on the computation scheduler, which has one thread per processor
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.parallelismSpinner = new Spinner<>(1, processors, processors);
+        this.parallelismSpinner.setPrefWidth(70);
+        this.parallelismSpinner.setTooltip(new Tooltip("Files parsed at the same time, 1 parses them one after another"));
+
+        this.orderedCheckBox = new CheckBox("Keep file order");
+        this.orderedCheckBox.setTooltip(new Tooltip("Show the classes in discovery order when parsing in parallel"));
+
+        this.metricsButton = new Button("Show Metrics");
+        this.metricsButton.setTooltip(new Tooltip("Append the current throughput, failures and queue depths to the log"));
+
+        topPanel.setAlignment(Pos.CENTER_LEFT);
+        topPanel.getChildren().addAll(folderButton, startButton, importsOnlyCheckBox,
+                parallelismLabel, parallelismSpinner, orderedCheckBox, metricsButton);
         this.root.setTop(topPanel);
     }
 
@@ -65,11 +90,8 @@ public class AnalysisView {
         // Left panel - Log area
         VBox leftPanel = new VBox(10);
         leftPanel.setPadding(new Insets(10));
-        Label logLabel = new Label("Analysis Log:");
-        this.logTextArea = new TextArea();
-        this.logTextArea.setEditable(false);
-        leftPanel.getChildren().addAll(logLabel, this.logTextArea);
-        VBox.setVgrow(this.logTextArea, Priority.ALWAYS);
+        leftPanel.getChildren().add(this.logView.getRoot());
+        VBox.setVgrow(this.logView.getRoot(), Priority.ALWAYS);
 
         // Right panel - Graph area with zoom control
         VBox rightPanel = new VBox(10);
@@ -92,8 +114,9 @@ public class AnalysisView {
 
         this.classesCountLabel = new Label("Start to count number of Classes/Interfaces");
         this.dependenciesCountLabel = new Label("Start to count number of Dependencies");
+        this.throughputLabel = new Label();
 
-        bottomPanel.getChildren().addAll(classesCountLabel, dependenciesCountLabel);
+        bottomPanel.getChildren().addAll(classesCountLabel, dependenciesCountLabel, throughputLabel);
         this.root.setBottom(bottomPanel);
     }
 
@@ -149,6 +172,22 @@ public class AnalysisView {
         return this.folderButton;
     }
 
+    public Button getMetricsButton() {
+        return this.metricsButton;
+    }
+
+    public CheckBox getImportsOnlyCheckBox() {
+        return this.importsOnlyCheckBox;
+    }
+
+    public Spinner<Integer> getParallelismSpinner() {
+        return this.parallelismSpinner;
+    }
+
+    public CheckBox getOrderedCheckBox() {
+        return this.orderedCheckBox;
+    }
+
     public GraphView getGraphView() {
         return this.graphView;
     }
@@ -157,12 +196,25 @@ public class AnalysisView {
         return this.zoomSlider;
     }
 
+    public LogView getLogView() {
+        return this.logView;
+    }
+
+    // Text at INFO level, one log line per line of the text
     public void appendLog(String text) {
-        this.logTextArea.appendText(text);
+        this.appendLog(LogLevel.INFO, text);
+    }
+
+    public void appendLog(LogLevel level, String text) {
+        this.logView.append(level, List.of(text.split("\n")));
+    }
+
+    public void appendLog(LogLevel level, List<String> lines) {
+        this.logView.append(level, lines);
     }
 
     public void clearLog() {
-        this.logTextArea.clear();
+        this.logView.clear();
     }
 
     public void updateClassesCount(int count) {
@@ -173,6 +225,10 @@ public class AnalysisView {
         this.dependenciesCountLabel.setText("Number of Dependencies: " + count);
     }
 
+    public void updateThroughput(double classesPerSecond) {
+        this.throughputLabel.setText(String.format("Throughput: %.1f classes/s", classesPerSecond));
+    }
+
     public void updateZoomLabel(double zoomFactor) {
         int percentage = (int) (zoomFactor * 100);
         this.zoomLabel.setText("Zoom: " + percentage + "%");
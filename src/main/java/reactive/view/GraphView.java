@@ -21,7 +21,8 @@ public class GraphView {
         Graph graph = new SingleGraph("Dependencies");
         graph.setAttribute("ui.stylesheet",
                 "node { " +
-                        "size: 30px; " +
+                        "size-mode: dyn-size; " +
+                        "size: 25px; " +
                         "text-size: 12px; " +
                         "text-color: #000; " +
                         "fill-color: #B3E5FC; " +
@@ -33,12 +34,16 @@ public class GraphView {
                         "text-padding: 3px; " +
                         "text-offset: 0px, -25px; " +
                         "} " +
+                        "node.dependency { " +
+                        "fill-color: #E1F5FE; " +
+                        "stroke-color: #81D4FA; " +
+                        "} " +
                         "edge { " +
                         "shape: line; " +
                         "arrow-shape: arrow; " +
                         "arrow-size: 12px, 6px; " +
                         "fill-color: #757575; " +
-                        "size: 1px; " +
+                        "size: 2px; " +
                         "}");
         graph.setAttribute("ui.quality");
         graph.setAttribute("ui.antialias");
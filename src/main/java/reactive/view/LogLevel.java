@@ -0,0 +1,12 @@
+package reactive.view;
+
+/**
+ * Severity of a line of the analysis log, the log view shows the lines at or above a chosen level.
+ */
+public enum LogLevel {
+    // One line per analysed class
+    DEBUG,
+    INFO,
+    WARNING,
+    ERROR
+}
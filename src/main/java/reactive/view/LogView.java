@@ -0,0 +1,337 @@
+package reactive.view;
+
+import javafx.application.Platform;
+import javafx.collections.*;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Bounded log of the analysis, shown in a virtualized list.
+ * The latest lines of every level are kept in a ring buffer of fixed capacity per level, so
+ * appending costs the same however long the analysis runs, a flood of DEBUG lines never evicts
+ * the INFO and above ones, and only the visible rows are rendered. The list shown holds exactly
+ * the buffered lines of the levels shown. Every line can also be written to a spill file, by a
+ * background thread, which keeps the complete log on disk; its errors are logged at ERROR level.
+ */
+public class LogView {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private final VBox root;
+    private final ListView<LogEntry> listView;
+    private final ChoiceBox<LogLevel> levelChoiceBox;
+    // Latest lines of each level, the lines shown are rebuilt from here when the level changes
+    private final EnumMap<LogLevel, LogLines> levelLines;
+    // Lines evicted from the ring of their level are removed from here too
+    private final ObservableList<LogEntry> shownLines;
+    private final int capacity;
+    private final SpillWriter spillWriter;
+    private long nextSequence;
+
+    public LogView() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Capacity of each level, the list shows up to that many lines of every level shown
+    public LogView(int capacity) {
+        this.levelLines = new EnumMap<>(LogLevel.class);
+        for (LogLevel level : LEVELS) {
+            this.levelLines.put(level, new LogLines(capacity));
+        }
+        this.capacity = capacity;
+        this.shownLines = FXCollections.observableArrayList();
+        this.spillWriter = new SpillWriter(message -> Platform.runLater(() -> this.append(LogLevel.ERROR, message)));
+
+        this.listView = new ListView<>(this.shownLines);
+        this.listView.setCellFactory(list -> new LogCell());
+
+        this.levelChoiceBox = new ChoiceBox<>();
+        this.levelChoiceBox.getItems().addAll(LogLevel.values());
+        this.levelChoiceBox.setValue(LogLevel.DEBUG);
+        this.levelChoiceBox.valueProperty().addListener((observable, oldLevel, newLevel) -> this.refilter());
+
+        HBox header = new HBox(10, new Label("Analysis Log:"), new Label("Level:"), this.levelChoiceBox);
+        header.setAlignment(Pos.CENTER_LEFT);
+        this.root = new VBox(10, header, this.listView);
+        VBox.setVgrow(this.listView, Priority.ALWAYS);
+    }
+
+    public Region getRoot() {
+        return this.root;
+    }
+
+    // Lines are also written to the given file from now on, null stops spilling
+    public void setSpillFile(Path spillFile) {
+        this.spillWriter.setFile(spillFile);
+    }
+
+    public void append(LogLevel level, String line) {
+        this.append(level, List.of(line));
+    }
+
+    // Append a batch of lines with a single change of the list
+    public void append(LogLevel level, List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        List<LogEntry> entries = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            entries.add(new LogEntry(level, line, this.nextSequence++));
+        }
+        List<LogEntry> evicted = this.levelLines.get(level).append(entries);
+        if (level.compareTo(this.levelChoiceBox.getValue()) >= 0) {
+            if (!evicted.isEmpty()) {
+                this.shownLines.removeAll(new HashSet<>(evicted));
+            }
+            // Only the last lines of a batch larger than the ring of its level are kept
+            this.shownLines.addAll(entries.subList(Math.max(0, entries.size() - this.capacity), entries.size()));
+            this.listView.scrollTo(this.shownLines.size() - 1);
+        }
+        this.spillWriter.write(entries);
+    }
+
+    // Drop every line, the spill file starts over as well
+    public void clear() {
+        this.levelLines.values().forEach(lines -> lines.reset(List.of()));
+        this.shownLines.clear();
+        this.spillWriter.restart();
+    }
+
+    // Flush and close the spill file, if any, once the lines already appended are written
+    public void close() {
+        this.spillWriter.close();
+    }
+
+    // Lines of the levels shown, merged back in the order they were appended
+    private void refilter() {
+        LogLevel minLevel = this.levelChoiceBox.getValue();
+        List<LogEntry> shown = new ArrayList<>();
+        for (LogLevel level : LEVELS) {
+            if (level.compareTo(minLevel) >= 0) {
+                shown.addAll(this.levelLines.get(level));
+            }
+        }
+        shown.sort(Comparator.comparingLong(entry -> entry.sequence));
+        this.shownLines.setAll(shown);
+        this.listView.scrollTo(Math.max(0, shown.size() - 1));
+    }
+
+    private static class LogEntry {
+        private final LogLevel level;
+        private final String text;
+        // Order of arrival across levels
+        private final long sequence;
+
+        private LogEntry(LogLevel level, String text, long sequence) {
+            this.level = level;
+            this.text = text;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Writes lines to the spill file on its own thread, so the FX thread never waits for the disk.
+     * Tasks run in submission order, an I/O error disables spilling until a new file is set.
+     * Errors are reported to the handler, from the writer thread.
+     */
+    private static class SpillWriter {
+        private static final int CLOSE_TIMEOUT_SECONDS = 5;
+
+        private final ExecutorService executor;
+        private final Consumer<String> errorHandler;
+        private Path file;
+        private Writer writer;
+
+        private SpillWriter(Consumer<String> errorHandler) {
+            this.errorHandler = errorHandler;
+            this.executor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "log-spill-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        // From now on lines go to the given file, null stops spilling
+        private void setFile(Path file) {
+            this.submit(() -> {
+                this.closeWriter();
+                this.file = file;
+                this.openWriter();
+            });
+        }
+
+        private void write(List<LogEntry> entries) {
+            this.submit(() -> {
+                if (this.writer == null) {
+                    return;
+                }
+                try {
+                    for (LogEntry entry : entries) {
+                        this.writer.write(entry.level + " " + entry.text + "\n");
+                    }
+                    this.writer.flush();
+                } catch (IOException e) {
+                    this.errorHandler.accept("Error writing log file, spilling disabled: " + e.getMessage());
+                    this.closeWriter();
+                    this.file = null;
+                }
+            });
+        }
+
+        // Truncate the spill file
+        private void restart() {
+            this.submit(() -> {
+                this.closeWriter();
+                this.openWriter();
+            });
+        }
+
+        // Waits a little for the pending lines, the thread does not keep the application alive
+        private void close() {
+            this.submit(() -> {
+                this.closeWriter();
+                this.file = null;
+            });
+            this.executor.shutdown();
+            try {
+                if (!this.executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    this.errorHandler.accept("Log file not completely written, closing anyway");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Lines appended after close are dropped
+        private void submit(Runnable task) {
+            try {
+                this.executor.execute(task);
+            } catch (RejectedExecutionException ignored) {
+            }
+        }
+
+        private void openWriter() {
+            if (this.file == null) {
+                return;
+            }
+            try {
+                this.writer = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                this.errorHandler.accept("Error opening log file " + this.file + ": " + e.getMessage());
+                this.file = null;
+            }
+        }
+
+        private void closeWriter() {
+            if (this.writer != null) {
+                try {
+                    this.writer.close();
+                } catch (IOException e) {
+                    this.errorHandler.accept("Error closing log file: " + e.getMessage());
+                }
+                this.writer = null;
+            }
+        }
+    }
+
+    private static class LogCell extends ListCell<LogEntry> {
+        @Override
+        protected void updateItem(LogEntry entry, boolean empty) {
+            super.updateItem(entry, empty);
+            if (empty || entry == null) {
+                this.setText(null);
+                this.setStyle(null);
+                return;
+            }
+            this.setText(entry.text);
+            switch (entry.level) {
+                case ERROR -> this.setStyle("-fx-text-fill: #C62828;");
+                case WARNING -> this.setStyle("-fx-text-fill: #EF6C00;");
+                case DEBUG -> this.setStyle("-fx-text-fill: #616161;");
+                default -> this.setStyle(null);
+            }
+        }
+    }
+
+    /**
+     * Observable ring buffer, the oldest lines are removed once it is full and returned to the caller.
+     */
+    private static class LogLines extends ObservableListBase<LogEntry> {
+        private final LogEntry[] entries;
+        private int head;
+        private int size;
+
+        private LogLines(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Log capacity must be positive: " + capacity);
+            }
+            this.entries = new LogEntry[capacity];
+        }
+
+        @Override
+        public LogEntry get(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.entries[(this.head + index) % this.entries.length];
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        private List<LogEntry> append(List<LogEntry> added) {
+            int capacity = this.entries.length;
+            // Only the last lines of a batch larger than the buffer can be kept
+            int from = Math.max(0, added.size() - capacity);
+            int count = added.size() - from;
+            int evicted = Math.max(0, this.size + count - capacity);
+
+            List<LogEntry> removed = new ArrayList<>(evicted);
+            this.beginChange();
+            if (evicted > 0) {
+                for (int i = 0; i < evicted; i++) {
+                    removed.add(this.get(i));
+                    this.entries[(this.head + i) % capacity] = null;
+                }
+                this.head = (this.head + evicted) % capacity;
+                this.size -= evicted;
+                this.nextRemove(0, removed);
+            }
+            for (int i = from; i < added.size(); i++) {
+                this.entries[(this.head + this.size) % capacity] = added.get(i);
+                this.size++;
+            }
+            this.nextAdd(this.size - count, this.size);
+            this.endChange();
+            return removed;
+        }
+
+        private void reset(List<LogEntry> replacement) {
+            List<LogEntry> removed = new ArrayList<>(this);
+            Arrays.fill(this.entries, null);
+            this.head = 0;
+            this.size = 0;
+            int from = Math.max(0, replacement.size() - this.entries.length);
+            for (int i = from; i < replacement.size(); i++) {
+                this.entries[this.size++] = replacement.get(i);
+            }
+
+            this.beginChange();
+            if (!removed.isEmpty()) {
+                this.nextRemove(0, removed);
+            }
+            if (this.size > 0) {
+                this.nextAdd(0, this.size);
+            }
+            this.endChange();
+        }
+    }
+}